@@ -2,18 +2,22 @@ package com.ganguo.java.plugin.action.intention;
 
 import com.ganguo.java.plugin.constant.Filenames;
 import com.ganguo.java.plugin.util.EditorUtils;
-import com.ganguo.java.plugin.util.FileUtils;
 import com.ganguo.java.plugin.util.IndexUtils;
-import com.ganguo.java.plugin.util.ProjectUtils;
-import com.ganguo.java.plugin.util.SafeProperties;
+import com.ganguo.java.plugin.util.MsgBundleHelper;
 import com.ganguo.java.plugin.util.WriteActions;
+import com.intellij.openapi.application.ReadAction;
 import com.intellij.openapi.editor.Editor;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.progress.Task;
 import com.intellij.openapi.project.Project;
 import com.intellij.psi.PsiClass;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiField;
 import com.intellij.psi.PsiFile;
 import com.intellij.psi.PsiWhiteSpace;
+import com.intellij.psi.SmartPointerManager;
+import com.intellij.psi.SmartPsiElementPointer;
 import com.intellij.psi.util.PsiTreeUtil;
 import com.intellij.util.IncorrectOperationException;
 import lombok.extern.slf4j.Slf4j;
@@ -21,9 +25,6 @@ import org.apache.commons.lang3.StringUtils;
 import org.jetbrains.annotations.Nls;
 import org.jetbrains.annotations.NotNull;
 
-import java.io.IOException;
-import java.util.Arrays;
-
 /**
  * 删除ExceptionMsg
  */
@@ -59,61 +60,69 @@ public class DeleteExceptionMsgAction extends BaseIntentionAction {
 
         String key = strs[0];
 
-        try {
-            WriteActions writeActions = new WriteActions(project);
-            deleteOnProperties(project, key, writeActions);
-            deleteOnClass(project, key, writeActions);
-            writeActions.run();
-        } catch (Exception e) {
-            log.error(e.getMessage(), e);
-        }
-    }
+        ProgressManager.getInstance().run(new Task.Backgroundable(project, "删除Msg", true) {
+            private MsgBundleHelper msgBundleHelper;
+            private SmartPsiElementPointer<PsiField> fieldPointer;
 
-    /**
-     * 从所有的exception_msg.properties文件中删除
-     */
-    private void deleteOnProperties(Project project, String key, WriteActions writeActions) {
-        Arrays.stream(ProjectUtils.getI18nDirFile(project).getChildren())
-                .filter(file -> file.getName().matches("exception_msg.*\\.properties"))
-                .forEach(file -> {
-                    SafeProperties properties = new SafeProperties();
-                    try {
-                        properties.load(file.getInputStream());
-                    } catch (IOException e) {
-                        log.error(e.getMessage(), e);
-                        throw new RuntimeException(e);
-                    }
-
-                    properties.remove(key);
-                    writeActions.add(() -> {
-                        try {
-                            FileUtils.setContent(file, properties);
-                        } catch (IOException e) {
-                            log.error(e.getMessage(), e);
-                            throw new RuntimeException(e);
-                        }
-                    });
-                });
+            @Override
+            public void run(@NotNull ProgressIndicator indicator) {
+                // 在后台读取所有语言的文件，删除Key并计算要删除的行，界面线程中只写入
+                indicator.setText("读取exception_msg*.properties");
+                msgBundleHelper = ReadAction.compute(() -> new MsgBundleHelper(project).remove(key).preparePatches());
+
+                indicator.checkCanceled();
+                indicator.setText("查找" + Filenames.MSG_CLASS);
+                fieldPointer = ReadAction.compute(() -> findField(project, key));
+            }
+
+            @Override
+            public void onSuccess() {
+                // 后台准备期间文件被修改过时，按当前内容重新删除，不能用旧内容覆盖
+                if (msgBundleHelper.isModified()) {
+                    msgBundleHelper = new MsgBundleHelper(project).remove(key);
+                }
+
+                WriteActions writeActions = new WriteActions(project);
+                msgBundleHelper.write(writeActions);
+                deleteOnClass(fieldPointer, writeActions);
+                writeActions.run();
+            }
+
+            @Override
+            public void onThrowable(@NotNull Throwable error) {
+                log.error(error.getMessage(), error);
+            }
+        });
     }
 
     /**
-     * 从ExceptionMsg.java文件中删除
+     * 在ExceptionMsg.java中查找Key对应的枚举常量，需在读操作中调用
      */
-    private void deleteOnClass(Project project, String key, WriteActions writeActions) {
+    private SmartPsiElementPointer<PsiField> findField(Project project, String key) {
         PsiFile[] psiFiles = IndexUtils.getFilesByName(project, Filenames.MSG_CLASS);
         if (psiFiles.length == 0) {
             log.error("find {} fail!", Filenames.MSG_CLASS);
-            return;
+            return null;
         }
         PsiFile psiFile = psiFiles[0];
 
         PsiClass psiClass = PsiTreeUtil.findChildOfType(psiFile, PsiClass.class);
         if (psiClass == null) {
             log.error("find class fail!");
-            return;
+            return null;
         }
 
         PsiField psiField = psiClass.findFieldByName(key, false);
+        if (psiField == null) return null;
+
+        return SmartPointerManager.getInstance(project).createSmartPsiElementPointer(psiField);
+    }
+
+    /**
+     * 从ExceptionMsg.java文件中删除
+     */
+    private void deleteOnClass(SmartPsiElementPointer<PsiField> fieldPointer, WriteActions writeActions) {
+        PsiField psiField = fieldPointer == null ? null : fieldPointer.getElement();
         if (psiField == null) return;
 
         PsiElement psiWhiteSpace = psiField.getPrevSibling();
@@ -1,24 +1,20 @@
 package com.ganguo.java.plugin.action.menu;
 
 import com.ganguo.java.plugin.action.BaseAnAction;
-import com.ganguo.java.plugin.constant.Filenames;
-import com.ganguo.java.plugin.constant.Paths;
+import com.ganguo.java.plugin.context.ExceptionMsgContext;
 import com.ganguo.java.plugin.ui.dialog.AddMsgDialog;
 import com.ganguo.java.plugin.util.CopyPasteUtils;
-import com.ganguo.java.plugin.util.FileUtils;
 import com.ganguo.java.plugin.util.IndexUtils;
+import com.ganguo.java.plugin.util.MsgBundleHelper;
 import com.ganguo.java.plugin.util.MsgUtils;
 import com.ganguo.java.plugin.util.NotificationHelper;
 import com.ganguo.java.plugin.util.PsiUtils;
 import com.ganguo.java.plugin.util.SafeProperties;
+import com.ganguo.java.plugin.util.TranslateHelper;
 import com.ganguo.java.plugin.util.WriteActions;
 import com.intellij.openapi.actionSystem.AnActionEvent;
-import com.intellij.openapi.application.ApplicationManager;
-import com.intellij.openapi.command.WriteCommandAction;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.ui.Messages;
-import com.intellij.openapi.util.Computable;
-import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.PsiClass;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiElementFactory;
@@ -31,19 +27,23 @@ import lombok.extern.slf4j.Slf4j;
 import org.dependcode.dependcode.Context;
 import org.dependcode.dependcode.ContextBuilder;
 import org.dependcode.dependcode.anno.Func;
-import org.dependcode.dependcode.anno.Var;
+import org.dependcode.dependcode.anno.ImportFrom;
+import org.dependcode.dependcode.anno.Nla;
 
-import java.io.IOException;
-import java.util.Arrays;
-import java.util.Map;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 /**
  * 添加ExceptionMsg
  */
 @Slf4j
+@ImportFrom(ExceptionMsgContext.class)
 public class AddExceptionMsgAction extends BaseAnAction {
 
+    /** 最多提示的相似Msg个数 */
+    private static final int MAX_SIMILAR_COUNT = 5;
+
     @Override
     public void action(AnActionEvent e) {
         new AddMsgDialog(e, this::doAction).show();
@@ -68,54 +68,35 @@ public class AddExceptionMsgAction extends BaseAnAction {
     }
 
     /**
-     * exception_msg.properties文件
-     */
-    @Var
-    private VirtualFile msgFile(VirtualFile rootFile) {
-        VirtualFile file = rootFile.findFileByRelativePath(Paths.MSG_PROPERTIES);
-        if (file == null) {
-            file = rootFile.findFileByRelativePath(Paths.MSG_ZH_PROPERTIES);
-        }
-        if (file == null) {
-            file = rootFile.findFileByRelativePath(Paths.MSG_ZH_CN_PROPERTIES);
-        }
-        if (file == null) {
-            file = rootFile.findFileByRelativePath(Paths.MSG_EN_PROPERTIES);
-        }
-        return file;
-    }
-
-    /**
-     * msg的properties对象
-     */
-    @Var
-    private SafeProperties properties(VirtualFile msgFile) {
-        return ApplicationManager.getApplication().runReadAction((Computable<SafeProperties>) () -> {
-            SafeProperties properties = new SafeProperties();
-            try {
-                properties.load(msgFile.getInputStream());
-            } catch (IOException e) {
-                log.error("read {} fail", Paths.MSG_PROPERTIES, e);
-            }
-            return properties;
-        });
-    }
-
-    /**
-     * 添加到exception_msg.properties中
+     * 添加到所有语言的exception_msg*.properties中
      */
     @Func
-    private Status add2Properties(VirtualFile msgFile, SafeProperties properties, String key, String value,
+    private Status add2Properties(Project project, SafeProperties properties, MsgBundleHelper msgBundleHelper,
+                                  @Nla TranslateHelper translateHelper, String key, String value,
                                   WriteActions writeActions) {
         // 检查Value是否已存在
-        for (Map.Entry<Object, Object> entry : properties.entrySet()) {
-            if (value.equals(entry.getValue())) {
-                CopyPasteUtils.putString(entry.getValue().toString());
-                CopyPasteUtils.putString(entry.getKey().toString());
+        String existsKey = IndexUtils.getMsgKeysByValue(project, value).stream().findFirst().orElse(null);
+        if (existsKey != null) {
+            String existsValue = properties.getProperty(existsKey, value);
+            CopyPasteUtils.putString(existsValue);
+            CopyPasteUtils.putString(existsKey);
+
+            NotificationHelper.info("发现%s已存在，已放入粘贴板", existsValue).show();
 
-                NotificationHelper.info("发现%s已存在，已放入粘贴板", entry.getValue()).show();
+            return Status.EXISTS;
+        }
 
-                return Status.EXISTS;
+        // 检查是否有相似的Value
+        List<String> similarKeys = properties.getValueIndex().findSimilarKeys(value, MAX_SIMILAR_COUNT);
+        if (!similarKeys.isEmpty()) {
+            String similarText = similarKeys.stream()
+                    .map(similarKey -> similarKey + "=" + properties.getProperty(similarKey))
+                    .collect(Collectors.joining("\n"));
+            int result = Messages.showYesNoDialog("发现相似的Msg：\n" + similarText + "\n是否继续添加？",
+                    "提示", "继续添加", "取消", null);
+            if (result != Messages.YES) {
+                CopyPasteUtils.putString(similarKeys.get(0));
+                return Status.FAIL;
             }
         }
 
@@ -129,45 +110,27 @@ public class AddExceptionMsgAction extends BaseAnAction {
             }
         }
 
-        properties.setProperty(key, value);
-        writeActions.add(() -> {
-            try {
-                FileUtils.setContent(msgFile, properties);
-            } catch (IOException e) {
-                log.error("write {} fail", Paths.MSG_PROPERTIES, e);
-            }
-        }).run();
+        msgBundleHelper.add(key, value, translateHelper).write(writeActions);
+        writeActions.run();
 
         return Status.SUCCESS;
     }
 
-    /**
-     * ExceptionMsg.java的Class文件对象
-     */
-    @Var
-    private PsiClass msgClass(Project project) {
-        return Arrays.stream(IndexUtils.getFilesByName(project, Filenames.MSG_CLASS))
-                .findFirst()
-                .map(file -> PsiTreeUtil.findChildOfType(file, PsiClass.class))
-                .orElse(null);
-    }
-
     /**
      * 添加到到ExceptionMsg.java中
      */
     @Func
     private Status add2Class(Project project, PsiClass msgClass, PsiElementFactory elementFactory,
-                             String key, String value) {
+                             WriteActions writeActions, String key, String value) {
         // Key已存在
         PsiField psiField = msgClass.findFieldByName(key, false);
         if (psiField != null) {
 
             PsiDocComment psiDocComment = PsiTreeUtil.findChildOfType(psiField, PsiDocComment.class);
             if (psiDocComment != null) {
-                WriteCommandAction.runWriteCommandAction(project, () -> {
-                    psiDocComment.replace(PsiUtils.createPsiDocComment(elementFactory, value));
-                });
-                PsiUtils.reformatJavaFile(msgClass);
+                writeActions.add(() -> writeActions.reformat(
+                        psiDocComment.replace(PsiUtils.createPsiDocComment(elementFactory, value))))
+                        .run();
             }
 
             return Status.EXISTS;
@@ -179,14 +142,12 @@ public class AddExceptionMsgAction extends BaseAnAction {
                 .createWhiteSpaceFromText("\n\n");
 
 
-        WriteCommandAction.runWriteCommandAction(project, () -> {
+        writeActions.add(() -> {
             psiEnumConstant.addBefore(PsiUtils.createPsiDocComment(elementFactory, value),
                     psiEnumConstant.getFirstChild());
             psiEnumConstant.addBefore(whiteSpace, psiEnumConstant.getFirstChild());
-            msgClass.add(psiEnumConstant);
-        });
-
-        PsiUtils.reformatJavaFile(msgClass);
+            writeActions.reformat(msgClass.add(psiEnumConstant));
+        }).run();
 
         return Status.SUCCESS;
     }
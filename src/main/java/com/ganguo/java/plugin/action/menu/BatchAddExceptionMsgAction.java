@@ -0,0 +1,163 @@
+package com.ganguo.java.plugin.action.menu;
+
+import com.ganguo.java.plugin.action.BaseAnAction;
+import com.ganguo.java.plugin.context.ExceptionMsgContext;
+import com.ganguo.java.plugin.ui.dialog.BatchAddMsgDialog;
+import com.ganguo.java.plugin.util.IndexUtils;
+import com.ganguo.java.plugin.util.MsgBundleHelper;
+import com.ganguo.java.plugin.util.MsgUtils;
+import com.ganguo.java.plugin.util.NotificationHelper;
+import com.ganguo.java.plugin.util.PsiUtils;
+import com.ganguo.java.plugin.util.SafeProperties;
+import com.ganguo.java.plugin.util.TranslateHelper;
+import com.ganguo.java.plugin.util.WriteActions;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.Messages;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiElementFactory;
+import com.intellij.psi.PsiEnumConstant;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiParserFacade;
+import com.intellij.psi.javadoc.PsiDocComment;
+import com.intellij.psi.util.PsiTreeUtil;
+import org.dependcode.dependcode.Context;
+import org.dependcode.dependcode.ContextBuilder;
+import org.dependcode.dependcode.anno.Func;
+import org.dependcode.dependcode.anno.ImportFrom;
+import org.dependcode.dependcode.anno.Nla;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * 批量添加ExceptionMsg
+ */
+@ImportFrom(ExceptionMsgContext.class)
+public class BatchAddExceptionMsgAction extends BaseAnAction {
+
+    /** 提示和通知中最多列出的Key数量 */
+    private static final int MAX_SHOW_KEY_COUNT = 10;
+
+    @Override
+    public void action(AnActionEvent e) {
+        new BatchAddMsgDialog(e, this::doAction).show();
+    }
+
+    @SuppressWarnings("unchecked")
+    private boolean doAction(AnActionEvent event, Map<String, String> msgMap) {
+        Map<String, String> skippedMap = new LinkedHashMap<>();
+        Context context = ContextBuilder.of(this)
+                .put("event", event)
+                .put("msgMap", msgMap)
+                .put("skippedMap", skippedMap)
+                .put("addMap", Collections.emptyMap())
+                .build();
+
+        Map<String, String> addMap = context.exec("filterMsg", Map.class).get();
+        if (addMap == null) return false;
+
+        if (!addMap.isEmpty()) {
+            context.update("addMap", addMap).execVoid("addAll");
+        }
+
+        if (skippedMap.isEmpty()) {
+            NotificationHelper.info("共%d条，添加%d条", msgMap.size(), addMap.size()).show();
+        } else {
+            String skippedText = skippedMap.entrySet().stream()
+                    .limit(MAX_SHOW_KEY_COUNT)
+                    .map(entry -> entry.getKey() + "（已存在为" + entry.getValue() + "）")
+                    .collect(Collectors.joining("，"));
+            if (skippedMap.size() > MAX_SHOW_KEY_COUNT) {
+                skippedText += "...";
+            }
+            NotificationHelper.info("共%d条，添加%d条，跳过%d条已存在的Msg：%s",
+                    msgMap.size(), addMap.size(), skippedMap.size(), skippedText).show();
+        }
+        return true;
+    }
+
+    /**
+     * 过滤掉Msg已存在的条目，并确认是否覆盖已存在的Key
+     *
+     * @param skippedMap 保存跳过的Key和已存在的Key
+     * @return 需要添加的条目，null表示取消
+     */
+    @Func
+    private Map<String, String> filterMsg(Project project, SafeProperties properties, @Nla PsiClass msgClass,
+                                          Map<String, String> msgMap, Map<String, String> skippedMap) {
+        if (msgClass == null) {
+            MsgUtils.error("找不到ExceptionMsg.java");
+            return null;
+        }
+
+        Map<String, String> addMap = new LinkedHashMap<>();
+        List<String> existsKeys = new ArrayList<>();
+
+        msgMap.forEach((key, value) -> {
+            String existsKey = IndexUtils.getMsgKeysByValue(project, value).stream().findFirst().orElse(null);
+            if (existsKey != null) {
+                skippedMap.put(key, existsKey);
+                return;
+            }
+            if (properties.containsKey(key)) {
+                existsKeys.add(key);
+            }
+            addMap.put(key, value);
+        });
+
+        if (!existsKeys.isEmpty()) {
+            String keysText = existsKeys.stream()
+                    .limit(MAX_SHOW_KEY_COUNT)
+                    .collect(Collectors.joining("\n"));
+            if (existsKeys.size() > MAX_SHOW_KEY_COUNT) {
+                keysText += "\n...";
+            }
+            int result = Messages.showYesNoDialog(String.format("以下%d个Key已存在，是否覆盖？\n%s",
+                    existsKeys.size(), keysText), "提示", "覆盖", "取消", null);
+            if (result != Messages.YES) {
+                return null;
+            }
+        }
+
+        return addMap;
+    }
+
+    /**
+     * 在同一个写命令中写入所有语言的exception_msg*.properties和ExceptionMsg.java，最后只格式化改动的部分。
+     * 英文文件的值和单条添加时一样翻译，所有值一次批量翻译
+     */
+    @Func
+    private void addAll(Project project, MsgBundleHelper msgBundleHelper, @Nla TranslateHelper translateHelper,
+                        PsiClass msgClass, PsiElementFactory elementFactory, WriteActions writeActions,
+                        Map<String, String> addMap) {
+        msgBundleHelper.addAll(addMap, translateHelper).write(writeActions);
+
+        writeActions.add(() -> {
+            PsiParserFacade parserFacade = PsiParserFacade.SERVICE.getInstance(project);
+
+            addMap.forEach((key, value) -> {
+                PsiField psiField = msgClass.findFieldByName(key, false);
+                if (psiField != null) {
+                    PsiDocComment psiDocComment = PsiTreeUtil.findChildOfType(psiField, PsiDocComment.class);
+                    if (psiDocComment != null) {
+                        writeActions.reformat(psiDocComment.replace(
+                                PsiUtils.createPsiDocComment(elementFactory, value)));
+                    }
+                    return;
+                }
+
+                PsiEnumConstant psiEnumConstant = elementFactory.createEnumConstantFromText(key, null);
+                psiEnumConstant.addBefore(PsiUtils.createPsiDocComment(elementFactory, value),
+                        psiEnumConstant.getFirstChild());
+                psiEnumConstant.addBefore(parserFacade.createWhiteSpaceFromText("\n\n"),
+                        psiEnumConstant.getFirstChild());
+                writeActions.reformat(msgClass.add(psiEnumConstant));
+            });
+        }).run();
+    }
+}
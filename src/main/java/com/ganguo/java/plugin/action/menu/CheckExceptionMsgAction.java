@@ -0,0 +1,65 @@
+package com.ganguo.java.plugin.action.menu;
+
+import com.ganguo.java.plugin.action.BaseAnAction;
+import com.ganguo.java.plugin.context.ExceptionMsgContext;
+import com.ganguo.java.plugin.util.MsgBundleHelper;
+import com.ganguo.java.plugin.util.NotificationHelper;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.vfs.VirtualFile;
+import org.dependcode.dependcode.ContextBuilder;
+import org.dependcode.dependcode.anno.Func;
+import org.dependcode.dependcode.anno.ImportFrom;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * 检查各语言的ExceptionMsg的Key是否一致
+ */
+@ImportFrom(ExceptionMsgContext.class)
+public class CheckExceptionMsgAction extends BaseAnAction {
+
+    /** 每个文件最多显示的Key个数 */
+    private static final int MAX_KEY_COUNT = 20;
+
+    @Override
+    protected void action(AnActionEvent e) throws Exception {
+        ContextBuilder.of(this)
+                .put("event", e)
+                .build()
+                .execVoid("doAction");
+    }
+
+    @Func
+    private void doAction(MsgBundleHelper msgBundleHelper) {
+        if (msgBundleHelper.getFiles().size() < 2) {
+            NotificationHelper.info("只有一种语言的ExceptionMsg，无需检查").show();
+            return;
+        }
+
+        Map<VirtualFile, MsgBundleHelper.Diff> diffMap = msgBundleHelper.diff();
+        if (diffMap.isEmpty()) {
+            NotificationHelper.info("%d种语言的ExceptionMsg的Key一致", msgBundleHelper.getFiles().size()).show();
+            return;
+        }
+
+        StringBuilder content = new StringBuilder();
+        content.append("以").append(msgBundleHelper.getBaseFile().getName()).append("为准：");
+        diffMap.forEach((file, diff) -> {
+            content.append("<br><b>").append(file.getName()).append("</b>");
+            appendKeys(content, "缺少", diff.getMissingKeys());
+            appendKeys(content, "多出", diff.getExtraKeys());
+        });
+        NotificationHelper.warn("%s", content).show();
+    }
+
+    private static void appendKeys(StringBuilder content, String title, Collection<String> keys) {
+        if (keys.isEmpty()) return;
+
+        content.append("<br>").append(title).append(keys.size()).append("个: ");
+        content.append(String.join(", ", keys.stream().limit(MAX_KEY_COUNT)::iterator));
+        if (keys.size() > MAX_KEY_COUNT) {
+            content.append(", ...");
+        }
+    }
+}
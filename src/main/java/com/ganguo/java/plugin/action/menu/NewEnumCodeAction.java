@@ -6,6 +6,7 @@ import com.ganguo.java.plugin.context.JavaFileContext;
 import com.ganguo.java.plugin.util.ActionShowHelper;
 import com.ganguo.java.plugin.util.EditorUtils;
 import com.ganguo.java.plugin.util.FileUtils;
+import com.ganguo.java.plugin.util.HttpClientUtils;
 import com.ganguo.java.plugin.util.MyStringUtils;
 import com.ganguo.java.plugin.util.NotificationHelper;
 import com.ganguo.java.plugin.util.ProjectUtils;
@@ -16,6 +17,7 @@ import com.intellij.openapi.actionSystem.LangDataKeys;
 import com.intellij.openapi.editor.CaretModel;
 import com.intellij.openapi.editor.Document;
 import com.intellij.openapi.editor.Editor;
+import com.intellij.openapi.progress.ProcessCanceledException;
 import com.intellij.openapi.project.Project;
 import com.intellij.psi.PsiDirectory;
 import com.intellij.psi.PsiFile;
@@ -140,7 +142,7 @@ public class NewEnumCodeAction extends BaseAnAction {
      * 项目列表
      */
     @Var
-    private List<Item> items(String comment, TranslateHelper translateHelper) {
+    private List<Item> items(String comment, TranslateHelper translateHelper, Project project) {
         List<Item> items = Arrays.stream(StringUtils.split(comment, ",，"))
                 .map(item -> {
                     String[] split = StringUtils.split(item, "-");
@@ -161,16 +163,17 @@ public class NewEnumCodeAction extends BaseAnAction {
 
         if (needTranslate) {
             try {
-                String text = items.stream().map(Item::getName).reduce((s1, s2) -> s1 + "。" + s2)
-                        .orElse("");
-                String result = translateHelper.zh2En(text);
-                String[] names = StringUtils.split(result, '.');
-                for (int i = 0; i < names.length && i < items.size(); i++) {
-                    String name = names[i];
+                List<String> texts = items.stream().map(Item::getName).collect(Collectors.toList());
+                // 在后台批量翻译，结果和项目按下标对应，界面显示可取消的进度框
+                List<String> names = HttpClientUtils.await(translateHelper.zh2EnAllAsync(texts), "翻译中", project);
+                for (int i = 0; i < names.size() && i < items.size(); i++) {
+                    String name = names.get(i);
                     if (StringUtils.isNotEmpty(name)) {
                         items.get(i).setName(name.trim().toUpperCase().replaceAll("[^\\w]+", "_"));
                     }
                 }
+            } catch (ProcessCanceledException e) {
+                return null;
             } catch (Exception e) {
                 throw new RuntimeException(e);
             }
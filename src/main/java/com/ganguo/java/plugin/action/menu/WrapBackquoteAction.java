@@ -1,8 +1,10 @@
 package com.ganguo.java.plugin.action.menu;
 
-import com.ganguo.java.plugin.util.CharacterUtils;
-import com.ganguo.java.plugin.util.SqlUtils;
 import com.ganguo.java.plugin.action.BaseReplaceAction;
+import com.ganguo.java.plugin.service.SqlKeywordService;
+import com.ganguo.java.plugin.sql.KeywordSet;
+import com.ganguo.java.plugin.sql.SqlLexer;
+import com.ganguo.java.plugin.util.CharacterUtils;
 import com.intellij.openapi.actionSystem.AnActionEvent;
 
 /**
@@ -12,58 +14,35 @@ public class WrapBackquoteAction extends BaseReplaceAction {
 
     @Override
     protected String replace(AnActionEvent e, String text) throws Exception {
-        StringBuilder newText = new StringBuilder(text.length());
-        StringBuilder word = new StringBuilder();
-        char prevChar = 0;
-        // 是否位于单引号内，用于忽略单引号包含的文本单词
-        boolean isInSingleQuote = false;
-        // 是否在注释内，只判断'-- '注释
-        boolean isInComment = false;
-
-        for (int i = 0; i < text.length(); i++) {
-            char ch = text.charAt(i);
-
-            if (ch == '\'') {
-                if (prevChar != '\\') {
-                    isInSingleQuote = !isInSingleQuote;
-                }
-            }
-
-            if (ch == '-') {
-                char nextChar = (i + 1 >= text.length()) ? 0 : text.charAt(i + 1);
-                if (prevChar == '-' && nextChar == ' ') {
-                    isInComment = true;
-                }
-            }
-
-            if (ch == '\n') {
-                isInComment = false;
-            }
-
-            if (isSepChar(ch)) {
-                appendWord(newText, word, !isInSingleQuote && !isInComment);
-                newText.append(ch);
-                word.delete(0, word.length());
+        StringBuilder newText = new StringBuilder(text.length() + (text.length() >> 3));
+        boolean changed = false;
+        KeywordSet keywords = SqlKeywordService.getInstance(e.getProject()).getKeywords();
+
+        // 字符串、注释、已用反引号包裹的标识符都是单独的记号，原样保留
+        SqlLexer lexer = new SqlLexer(text);
+        SqlLexer.TokenType type;
+        while ((type = lexer.next()) != null) {
+            int start = lexer.getTokenStart();
+            int end = lexer.getTokenEnd();
+            if (type == SqlLexer.TokenType.WORD && isAllLowerCase(text, start, end) &&
+                    !keywords.contains(text, start, end)) {
+                newText.append('`').append(text, start, end).append('`');
+                changed = true;
             } else {
-                word.append(ch);
+                newText.append(text, start, end);
             }
-
-            prevChar = ch;
         }
 
-        appendWord(newText, word, !isInSingleQuote && !isInComment);
-        String newTextStr = newText.toString();
-
-        return newTextStr.equals(text) ? null : newTextStr;
+        return changed ? newText.toString() : null;
     }
 
-    private boolean isAllLowerCase(StringBuilder str) {
-        if (str.length() == 0) return false;
+    private boolean isAllLowerCase(CharSequence text, int start, int end) {
+        if (start == end) return false;
 
-        if (CharacterUtils.isDigit(str.charAt(0))) return false;
+        if (CharacterUtils.isDigit(text.charAt(start))) return false;
 
-        for (int i = 0; i < str.length(); i++) {
-            char ch = str.charAt(i);
+        for (int i = start; i < end; i++) {
+            char ch = text.charAt(i);
             if (ch == '_') continue;
 
             if (!CharacterUtils.isLetterOrDigit(ch)) return false;
@@ -71,17 +50,4 @@ public class WrapBackquoteAction extends BaseReplaceAction {
         }
         return true;
     }
-
-    private void appendWord(StringBuilder text, StringBuilder word, boolean enable) {
-        if (enable && isAllLowerCase(word) && !SqlUtils.isMysqlKeyword(word.toString())) {
-            text.append('`').append(word).append('`');
-        } else {
-            text.append(word);
-        }
-    }
-
-    private boolean isSepChar(char ch) {
-        return !CharacterUtils.isLetterOrDigit(ch) &&
-                ch != '\'' && ch != '"' && ch != '`' && ch != '_';
-    }
 }
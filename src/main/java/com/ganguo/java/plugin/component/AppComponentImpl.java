@@ -2,7 +2,13 @@ package com.ganguo.java.plugin.component;
 
 import com.ganguo.java.plugin.action.intention.DeleteExceptionMsgAction;
 import com.ganguo.java.plugin.action.intention.InsertTimestampAction;
+import com.ganguo.java.plugin.listener.SqlAutoFormatListener;
+import com.ganguo.java.plugin.util.HttpClientUtils;
+import com.ganguo.java.plugin.util.TranslateCache;
 import com.intellij.codeInsight.intention.IntentionManager;
+import com.intellij.openapi.application.Application;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.editor.EditorFactory;
 import lombok.extern.slf4j.Slf4j;
 import org.jetbrains.annotations.NotNull;
 
@@ -24,5 +30,16 @@ public class AppComponentImpl implements AppComponent {
         IntentionManager manager = IntentionManager.getInstance();
         manager.addAction(new DeleteExceptionMsgAction());
         manager.addAction(new InsertTimestampAction());
+
+        Application application = ApplicationManager.getApplication();
+        application.executeOnPooledThread(() -> TranslateCache.getInstance().load());
+        EditorFactory.getInstance().getEventMulticaster()
+                .addDocumentListener(new SqlAutoFormatListener(application), application);
+    }
+
+    @Override
+    public void disposeComponent() {
+        HttpClientUtils.shutdown();
+        TranslateCache.getInstance().close();
     }
 }
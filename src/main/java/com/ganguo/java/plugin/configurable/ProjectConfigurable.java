@@ -1,7 +1,9 @@
 package com.ganguo.java.plugin.configurable;
 
+import com.ganguo.java.plugin.constant.SqlDialect;
 import com.ganguo.java.plugin.constant.TemplateName;
 import com.ganguo.java.plugin.service.SettingService;
+import com.ganguo.java.plugin.service.SqlKeywordService;
 import com.ganguo.java.plugin.ui.form.ConfigurationForm;
 import com.ganguo.java.plugin.util.PatternUtils;
 import com.ganguo.java.plugin.util.ProjectUtils;
@@ -32,14 +34,19 @@ public class ProjectConfigurable implements SearchableConfigurable {
 
     private final ConfigurationForm form;
     private final SettingService settingService;
+    private final SqlKeywordService sqlKeywordService;
     private Map<TemplateName, String> templateMap;
     private String packageName;
     private String translateAppId;
     private String translateSecret;
+    private boolean autoFormatSql;
+    private SqlDialect sqlDialect;
+    private String sqlKeywords;
 
     public ProjectConfigurable(Project project) {
 
         settingService = ServiceManager.getService(project, SettingService.class);
+        sqlKeywordService = SqlKeywordService.getInstance(project);
 
         initTemplateMap();
 
@@ -51,12 +58,19 @@ public class ProjectConfigurable implements SearchableConfigurable {
 
         translateAppId = settingService.getTranslateAppId();
         translateSecret = settingService.getTranslateSecret();
+        autoFormatSql = settingService.isAutoFormatSql();
+        sqlDialect = settingService.getSqlDialect();
+        sqlKeywords = settingService.getSqlKeywords();
 
         form.onReset(e -> {
             if (Messages.showYesNoDialog("确认恢复默认设置？", "提示",
                     "确定", "取消", null) == Messages.YES) {
                 settingService.reset();
                 packageName = settingService.getPackageName();
+                autoFormatSql = settingService.isAutoFormatSql();
+                sqlDialect = settingService.getSqlDialect();
+                sqlKeywords = settingService.getSqlKeywords();
+                sqlKeywordService.reload();
                 initTemplateMap();
                 reset();
             }
@@ -95,7 +109,10 @@ public class ProjectConfigurable implements SearchableConfigurable {
         return !form.getPackageNameField().getText().equals(packageName) ||
                 !form.getTemplateMap().equals(templateMap) ||
                 !form.getTranslateAppIdField().getText().equals(translateAppId) ||
-                !form.getTranslateSecretField().getText().equals(translateSecret);
+                !form.getTranslateSecretField().getText().equals(translateSecret) ||
+                form.getAutoFormatSqlCheckBox().isSelected() != autoFormatSql ||
+                form.getSqlDialect() != sqlDialect ||
+                !form.getSqlKeywordsField().getText().equals(sqlKeywords);
     }
 
     @Override
@@ -104,6 +121,8 @@ public class ProjectConfigurable implements SearchableConfigurable {
         applyTemplate();
         applyTranslateAppId();
         applyTranslateSecret();
+        applyAutoFormatSql();
+        applySqlKeywords();
     }
 
     private void applyTemplate() {
@@ -139,12 +158,33 @@ public class ProjectConfigurable implements SearchableConfigurable {
         this.translateSecret = translateSecret;
     }
 
+    private void applyAutoFormatSql() {
+        boolean autoFormatSql = form.getAutoFormatSqlCheckBox().isSelected();
+        settingService.setAutoFormatSql(autoFormatSql);
+        this.autoFormatSql = autoFormatSql;
+    }
+
+    private void applySqlKeywords() {
+        SqlDialect sqlDialect = form.getSqlDialect();
+        String sqlKeywords = form.getSqlKeywordsField().getText();
+        if (sqlDialect == this.sqlDialect && sqlKeywords.equals(this.sqlKeywords)) return;
+
+        settingService.setSqlDialect(sqlDialect);
+        settingService.setSqlKeywords(sqlKeywords);
+        this.sqlDialect = sqlDialect;
+        this.sqlKeywords = sqlKeywords;
+        sqlKeywordService.reload();
+    }
+
     @Override
     public void reset() {
         form.getPackageNameField().setText(packageName);
         form.setTemplateMap(templateMap);
         form.getTranslateAppIdField().setText(translateAppId);
         form.getTranslateSecretField().setText(translateSecret);
+        form.getAutoFormatSqlCheckBox().setSelected(autoFormatSql);
+        form.setSqlDialect(sqlDialect);
+        form.getSqlKeywordsField().setText(sqlKeywords);
     }
 
     @Override
@@ -5,7 +5,9 @@ public class Filenames {
     public static final String MSG_ZH_PROPERTIES = "exception_msg_zh.properties";
     public static final String MSG_ZH_CN_PROPERTIES = "exception_msg_zh_CN.properties";
     public static final String MSG_EN_PROPERTIES = "exception_msg_en.properties";
+    public static final String MSG_PROPERTIES_PATTERN = "exception_msg.*\\.properties";
     public static final String MSG_CLASS = "ExceptionMsg.java";
     public static final String APPLICATION = "Application.java";
     public static final String TEST_APPLICATION = "ApplicationTests.java";
+    public static final String TRANSLATE_GLOSSARY = "translate_glossary.txt";
 }
@@ -0,0 +1,66 @@
+package com.ganguo.java.plugin.constant;
+
+import com.intellij.openapi.util.io.FileUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * SQL方言，决定哪些单词是关键字
+ */
+@Slf4j
+public enum SqlDialect {
+    MYSQL_5_7("MySQL 5.7", "mysql_common.txt", "mysql_5.7.txt"),
+    MYSQL_8_0("MySQL 8.0", "mysql_common.txt", "mysql_5.7.txt", "mysql_8.0.txt"),
+    ;
+
+    public static final String PATH_KEYWORD = "/keyword/";
+
+    public static final SqlDialect DEFAULT = MYSQL_8_0;
+
+    private final String displayName;
+    private final String[] keywordFiles;
+
+    SqlDialect(String displayName, String... keywordFiles) {
+        this.displayName = displayName;
+        this.keywordFiles = keywordFiles;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    /**
+     * 从插件资源中读取关键字，每个文件中的关键字用空白分隔，#开头的行为注释
+     *
+     * @return 小写的关键字
+     */
+    public List<String> loadKeywords() {
+        List<String> words = new ArrayList<>();
+        for (String file : keywordFiles) {
+            String content;
+            try {
+                content = FileUtil.loadTextAndClose(getClass().getResourceAsStream(PATH_KEYWORD + file));
+            } catch (IOException e) {
+                log.error("load {} fail", file, e);
+                continue;
+            }
+
+            for (String line : StringUtils.split(content, "\r\n")) {
+                if (!line.startsWith("#")) {
+                    words.addAll(Arrays.asList(StringUtils.split(line)));
+                }
+            }
+        }
+        return words;
+    }
+
+    @Override
+    public String toString() {
+        return displayName;
+    }
+}
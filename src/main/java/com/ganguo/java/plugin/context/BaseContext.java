@@ -1,5 +1,6 @@
 package com.ganguo.java.plugin.context;
 
+import com.ganguo.java.plugin.service.MsgBundleService;
 import com.ganguo.java.plugin.service.SettingService;
 import com.ganguo.java.plugin.util.ProjectUtils;
 import com.ganguo.java.plugin.util.WriteActions;
@@ -54,6 +55,11 @@ public class BaseContext {
         return ServiceManager.getService(project, SettingService.class);
     }
 
+    @Var
+    protected MsgBundleService msgBundleService(Project project) {
+        return MsgBundleService.getInstance(project);
+    }
+
     @Var
     protected String packageName(SettingService settingService) {
         return settingService.getPackageName();
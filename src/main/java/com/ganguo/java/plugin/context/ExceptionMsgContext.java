@@ -0,0 +1,84 @@
+package com.ganguo.java.plugin.context;
+
+import com.ganguo.java.plugin.constant.Filenames;
+import com.ganguo.java.plugin.constant.Paths;
+import com.ganguo.java.plugin.service.MsgBundleService;
+import com.ganguo.java.plugin.util.IndexUtils;
+import com.ganguo.java.plugin.util.MsgBundleHelper;
+import com.ganguo.java.plugin.util.SafeProperties;
+import com.ganguo.java.plugin.util.TranslateHelper;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Computable;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.util.PsiTreeUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.dependcode.dependcode.anno.Var;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+@Slf4j
+public class ExceptionMsgContext {
+
+    /**
+     * exception_msg.properties文件
+     */
+    @Var
+    public VirtualFile msgFile(VirtualFile rootFile) {
+        VirtualFile file = rootFile.findFileByRelativePath(Paths.MSG_PROPERTIES);
+        if (file == null) {
+            file = rootFile.findFileByRelativePath(Paths.MSG_ZH_PROPERTIES);
+        }
+        if (file == null) {
+            file = rootFile.findFileByRelativePath(Paths.MSG_ZH_CN_PROPERTIES);
+        }
+        if (file == null) {
+            file = rootFile.findFileByRelativePath(Paths.MSG_EN_PROPERTIES);
+        }
+        return file;
+    }
+
+    /**
+     * msg的properties对象
+     */
+    @Var
+    public SafeProperties properties(VirtualFile msgFile, MsgBundleService msgBundleService) {
+        return ApplicationManager.getApplication().runReadAction((Computable<SafeProperties>) () -> {
+            try {
+                return msgBundleService.getProperties(msgFile);
+            } catch (IOException e) {
+                log.error("read {} fail", Paths.MSG_PROPERTIES, e);
+            }
+            return new SafeProperties();
+        });
+    }
+
+    /**
+     * 所有语言的exception_msg*.properties
+     */
+    @Var
+    public MsgBundleHelper msgBundleHelper(Project project) {
+        return new MsgBundleHelper(project);
+    }
+
+    /**
+     * 翻译器，没有配置百度翻译时只使用术语表
+     */
+    @Var
+    public TranslateHelper translateHelper(Project project) {
+        return new TranslateHelper(project);
+    }
+
+    /**
+     * ExceptionMsg.java的Class文件对象
+     */
+    @Var
+    public PsiClass msgClass(Project project) {
+        return Arrays.stream(IndexUtils.getFilesByName(project, Filenames.MSG_CLASS))
+                .findFirst()
+                .map(file -> PsiTreeUtil.findChildOfType(file, PsiClass.class))
+                .orElse(null);
+    }
+}
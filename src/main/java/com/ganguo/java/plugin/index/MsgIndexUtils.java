@@ -0,0 +1,39 @@
+package com.ganguo.java.plugin.index;
+
+import com.ganguo.java.plugin.constant.Filenames;
+import com.ganguo.java.plugin.util.SafeProperties;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.util.indexing.FileBasedIndex;
+import com.intellij.util.indexing.FileContent;
+import com.intellij.util.text.CharSequenceReader;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.util.function.BiConsumer;
+
+/**
+ * ExceptionMsg索引的公共方法
+ */
+@Slf4j
+class MsgIndexUtils {
+
+    /** 只索引exception_msg*.properties */
+    static final FileBasedIndex.InputFilter INPUT_FILTER = MsgIndexUtils::isMsgFile;
+
+    static boolean isMsgFile(VirtualFile file) {
+        return !file.isDirectory() && file.getName().matches(Filenames.MSG_PROPERTIES_PATTERN);
+    }
+
+    /**
+     * 只扫描索引的文件内容中的Key和Msg，不记录行信息，解析失败时保留已扫描的部分
+     *
+     * @param action 依次处理每个Key和Msg，重复的Key以后面的为准
+     */
+    static void scan(FileContent inputData, BiConsumer<String, String> action) {
+        try {
+            SafeProperties.scan(new CharSequenceReader(inputData.getContentAsText()), action);
+        } catch (IOException | IllegalArgumentException e) {
+            log.warn("index {} fail", inputData.getFile().getPath(), e);
+        }
+    }
+}
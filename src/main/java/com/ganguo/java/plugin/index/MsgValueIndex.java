@@ -0,0 +1,77 @@
+package com.ganguo.java.plugin.index;
+
+import com.ganguo.java.plugin.util.PropertiesValueIndex;
+import com.intellij.util.indexing.DataIndexer;
+import com.intellij.util.indexing.FileBasedIndex;
+import com.intellij.util.indexing.FileBasedIndexExtension;
+import com.intellij.util.indexing.FileContent;
+import com.intellij.util.indexing.ID;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.KeyDescriptor;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * exception_msg*.properties中Msg到Key的索引，Msg经过{@link PropertiesValueIndex#normalize(String)}处理，
+ * 同一个文件中重复的Msg只保留字典序最小的Key
+ */
+public class MsgValueIndex extends FileBasedIndexExtension<String, String> {
+
+    public static final ID<String, String> NAME = ID.create("com.ganguo.java.plugin.index.MsgValueIndex");
+
+    @NotNull
+    @Override
+    public ID<String, String> getName() {
+        return NAME;
+    }
+
+    @NotNull
+    @Override
+    public DataIndexer<String, String, FileContent> getIndexer() {
+        return inputData -> {
+            // 重复的Key以后面的为准
+            Map<String, String> values = new HashMap<>();
+            MsgIndexUtils.scan(inputData, values::put);
+
+            Map<String, String> map = new HashMap<>(values.size() * 4 / 3 + 1);
+            values.forEach((key, value) -> {
+                String normalized = PropertiesValueIndex.normalize(value);
+                if (!normalized.isEmpty()) {
+                    map.merge(normalized, key, (k1, k2) -> k1.compareTo(k2) <= 0 ? k1 : k2);
+                }
+            });
+            return map;
+        };
+    }
+
+    @NotNull
+    @Override
+    public KeyDescriptor<String> getKeyDescriptor() {
+        return EnumeratorStringDescriptor.INSTANCE;
+    }
+
+    @NotNull
+    @Override
+    public DataExternalizer<String> getValueExternalizer() {
+        return EnumeratorStringDescriptor.INSTANCE;
+    }
+
+    @Override
+    public int getVersion() {
+        return 1;
+    }
+
+    @NotNull
+    @Override
+    public FileBasedIndex.InputFilter getInputFilter() {
+        return MsgIndexUtils.INPUT_FILTER;
+    }
+
+    @Override
+    public boolean dependsOnFileContent() {
+        return true;
+    }
+}
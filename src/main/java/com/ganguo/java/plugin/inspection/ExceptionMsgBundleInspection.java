@@ -0,0 +1,156 @@
+package com.ganguo.java.plugin.inspection;
+
+import com.ganguo.java.plugin.constant.Filenames;
+import com.ganguo.java.plugin.service.MsgBundleService;
+import com.ganguo.java.plugin.util.MsgBundleHelper;
+import com.ganguo.java.plugin.util.SafeProperties;
+import com.ganguo.java.plugin.util.WriteActions;
+import com.intellij.codeInspection.InspectionManager;
+import com.intellij.codeInspection.LocalInspectionTool;
+import com.intellij.codeInspection.LocalQuickFix;
+import com.intellij.codeInspection.ProblemDescriptor;
+import com.intellij.codeInspection.ProblemHighlightType;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.TextRange;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiDocumentManager;
+import com.intellij.psi.PsiFile;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 检查exception_msg*.properties中的Key是否在ExceptionMsg中存在
+ */
+@Slf4j
+public class ExceptionMsgBundleInspection extends LocalInspectionTool {
+
+    @Nullable
+    @Override
+    public ProblemDescriptor[] checkFile(@NotNull PsiFile file, @NotNull InspectionManager manager,
+                                         boolean isOnTheFly) {
+        VirtualFile virtualFile = file.getVirtualFile();
+        Project project = file.getProject();
+        if (virtualFile == null || !MsgInspectionUtils.isMsgBundle(project, virtualFile)) return null;
+
+        Document document = PsiDocumentManager.getInstance(project).getDocument(file);
+        if (document == null) return null;
+
+        PsiClass msgClass = MsgInspectionUtils.findMsgClass(project);
+        if (msgClass == null) return null;
+
+        SafeProperties properties;
+        try {
+            properties = MsgBundleService.getInstance(project).getProperties(virtualFile);
+        } catch (IOException e) {
+            log.error("read {} fail", virtualFile.getPath(), e);
+            return null;
+        }
+
+        Set<String> constantNames = MsgInspectionUtils.getConstantNames(msgClass);
+        List<ProblemDescriptor> problems = new ArrayList<>();
+        for (String key : properties.stringPropertyNames()) {
+            ProgressManager.checkCanceled();
+            if (constantNames.contains(key)) continue;
+
+            int line = properties.getSourceLine(key);
+            if (line < 0 || line >= document.getLineCount()) continue;
+
+            problems.add(manager.createProblemDescriptor(file, getKeyRange(document, line),
+                    String.format("%s在%s中不存在", key, Filenames.MSG_CLASS),
+                    ProblemHighlightType.GENERIC_ERROR_OR_WARNING, isOnTheFly,
+                    new AddConstantFix(key, properties.getProperty(key)), new DeleteFromBundlesFix(key)));
+        }
+        return problems.toArray(ProblemDescriptor.EMPTY_ARRAY);
+    }
+
+    /**
+     * 行中Key所在的范围
+     */
+    private static TextRange getKeyRange(Document document, int line) {
+        CharSequence text = document.getImmutableCharSequence();
+        int start = document.getLineStartOffset(line);
+        int end = document.getLineEndOffset(line);
+
+        while (start < end && Character.isWhitespace(text.charAt(start))) start++;
+        int keyEnd = start;
+        while (keyEnd < end) {
+            char c = text.charAt(keyEnd);
+            if (c == '=' || c == ':' || Character.isWhitespace(c)) break;
+            if (c == '\\') keyEnd++;
+            keyEnd++;
+        }
+        return new TextRange(start, Math.min(Math.max(keyEnd, start + 1), end));
+    }
+
+    /**
+     * 在ExceptionMsg中添加枚举常量，文档注释为Msg
+     */
+    private static class AddConstantFix implements LocalQuickFix {
+        private final String key;
+        private final String value;
+
+        AddConstantFix(String key, String value) {
+            this.key = key;
+            this.value = value;
+        }
+
+        @NotNull
+        @Override
+        public String getFamilyName() {
+            return "添加到" + Filenames.MSG_CLASS;
+        }
+
+        @Override
+        public boolean startInWriteAction() {
+            return false;
+        }
+
+        @Override
+        public void applyFix(@NotNull Project project, @NotNull ProblemDescriptor descriptor) {
+            PsiClass msgClass = MsgInspectionUtils.findMsgClass(project);
+            if (msgClass == null || msgClass.findFieldByName(key, false) != null) return;
+
+            WriteActions writeActions = new WriteActions(project);
+            writeActions.add(() -> writeActions.reformat(MsgInspectionUtils.addConstant(msgClass, key, value)))
+                    .run();
+        }
+    }
+
+    /**
+     * 从所有语言的exception_msg*.properties中删除
+     */
+    private static class DeleteFromBundlesFix implements LocalQuickFix {
+        private final String key;
+
+        DeleteFromBundlesFix(String key) {
+            this.key = key;
+        }
+
+        @NotNull
+        @Override
+        public String getFamilyName() {
+            return "从所有语言中删除";
+        }
+
+        @Override
+        public boolean startInWriteAction() {
+            return false;
+        }
+
+        @Override
+        public void applyFix(@NotNull Project project, @NotNull ProblemDescriptor descriptor) {
+            WriteActions writeActions = new WriteActions(project);
+            new MsgBundleHelper(project, MsgInspectionUtils.findI18nDir(project)).remove(key).write(writeActions);
+            writeActions.run();
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.ganguo.java.plugin.inspection;
+
+import com.ganguo.java.plugin.constant.Filenames;
+import com.ganguo.java.plugin.util.MsgBundleHelper;
+import com.ganguo.java.plugin.util.WriteActions;
+import com.intellij.codeInspection.LocalInspectionTool;
+import com.intellij.codeInspection.LocalQuickFix;
+import com.intellij.codeInspection.ProblemDescriptor;
+import com.intellij.codeInspection.ProblemHighlightType;
+import com.intellij.codeInspection.ProblemsHolder;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.JavaElementVisitor;
+import com.intellij.psi.JavaTokenType;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiElementVisitor;
+import com.intellij.psi.PsiEnumConstant;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiWhiteSpace;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.psi.util.PsiUtil;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 检查ExceptionMsg中的枚举常量是否在所有语言的exception_msg*.properties中都存在
+ */
+public class ExceptionMsgClassInspection extends LocalInspectionTool {
+
+    @NotNull
+    @Override
+    public PsiElementVisitor buildVisitor(@NotNull ProblemsHolder holder, boolean isOnTheFly) {
+        return new JavaElementVisitor() {
+            @Override
+            public void visitClass(PsiClass aClass) {
+                if (!MsgInspectionUtils.isMsgClass(aClass)) return;
+
+                VirtualFile i18nDir = MsgInspectionUtils.findI18nDir(aClass.getProject());
+                if (i18nDir == null) return;
+
+                List<VirtualFile> files = Arrays.stream(i18nDir.getChildren())
+                        .filter(file -> file.getName().matches(Filenames.MSG_PROPERTIES_PATTERN))
+                        .collect(Collectors.toList());
+                if (files.isEmpty()) return;
+
+                Map<String, Set<VirtualFile>> filesByKey = MsgInspectionUtils.getMsgFilesByKey(
+                        aClass.getProject(), files);
+                for (PsiField field : aClass.getFields()) {
+                    ProgressManager.checkCanceled();
+                    if (!(field instanceof PsiEnumConstant)) continue;
+
+                    String key = field.getName();
+                    Set<VirtualFile> containingFiles = filesByKey.getOrDefault(key, Collections.emptySet());
+                    if (containingFiles.size() == files.size()) continue;
+
+                    String missingFiles = files.stream()
+                            .filter(file -> !containingFiles.contains(file))
+                            .map(VirtualFile::getName)
+                            .collect(Collectors.joining(", "));
+                    if (missingFiles.isEmpty()) continue;
+
+                    holder.registerProblem(((PsiEnumConstant) field).getNameIdentifier(),
+                            String.format("%s在%s中不存在", key, missingFiles),
+                            ProblemHighlightType.GENERIC_ERROR_OR_WARNING,
+                            new AddToBundlesFix(), new DeleteConstantFix());
+                }
+            }
+        };
+    }
+
+    /**
+     * 添加到缺少该Key的exception_msg*.properties中，值为枚举常量的文档注释
+     */
+    private static class AddToBundlesFix implements LocalQuickFix {
+
+        @NotNull
+        @Override
+        public String getFamilyName() {
+            return "添加到exception_msg*.properties";
+        }
+
+        @Override
+        public boolean startInWriteAction() {
+            return false;
+        }
+
+        @Override
+        public void applyFix(@NotNull Project project, @NotNull ProblemDescriptor descriptor) {
+            PsiEnumConstant constant = PsiTreeUtil.getParentOfType(descriptor.getPsiElement(), PsiEnumConstant.class);
+            if (constant == null) return;
+
+            String value = MsgInspectionUtils.getDocText(constant);
+            WriteActions writeActions = new WriteActions(project);
+            new MsgBundleHelper(project, MsgInspectionUtils.findI18nDir(project))
+                    .addIfAbsent(constant.getName(), value.isEmpty() ? constant.getName() : value)
+                    .write(writeActions);
+            writeActions.run();
+        }
+    }
+
+    /**
+     * 删除枚举常量和它后面的逗号，删除最后一个常量时同时删除前面的逗号
+     */
+    private static class DeleteConstantFix implements LocalQuickFix {
+
+        @NotNull
+        @Override
+        public String getFamilyName() {
+            return "删除枚举常量";
+        }
+
+        @Override
+        public void applyFix(@NotNull Project project, @NotNull ProblemDescriptor descriptor) {
+            PsiEnumConstant constant = PsiTreeUtil.getParentOfType(descriptor.getPsiElement(), PsiEnumConstant.class);
+            if (constant == null) return;
+
+            PsiElement first = constant.getPrevSibling() instanceof PsiWhiteSpace ? constant.getPrevSibling() : constant;
+            PsiElement last = constant;
+
+            PsiElement next = PsiTreeUtil.skipWhitespacesAndCommentsForward(constant);
+            if (PsiUtil.isJavaToken(next, JavaTokenType.COMMA)) {
+                last = next;
+            }
+            if (PsiTreeUtil.getNextSiblingOfType(constant, PsiEnumConstant.class) == null) {
+                PsiElement prev = PsiTreeUtil.skipWhitespacesAndCommentsBackward(constant);
+                if (PsiUtil.isJavaToken(prev, JavaTokenType.COMMA)) {
+                    first = prev;
+                }
+            }
+            // 直接删除范围，不经过PsiClass对枚举常量逗号的处理，避免重复删除
+            constant.getParent().deleteChildRange(first, last);
+        }
+    }
+}
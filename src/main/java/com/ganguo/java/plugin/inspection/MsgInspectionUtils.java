@@ -0,0 +1,149 @@
+package com.ganguo.java.plugin.inspection;
+
+import com.ganguo.java.plugin.constant.Filenames;
+import com.ganguo.java.plugin.util.IndexUtils;
+import com.ganguo.java.plugin.util.ProjectUtils;
+import com.ganguo.java.plugin.util.PsiUtils;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.psi.JavaPsiFacade;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiDocCommentOwner;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiElementFactory;
+import com.intellij.psi.PsiEnumConstant;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.PsiParserFacade;
+import com.intellij.psi.javadoc.PsiDocComment;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiTreeUtil;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * ExceptionMsg检查的公共方法
+ */
+class MsgInspectionUtils {
+
+    private static final Key<CachedValue<Map<String, Set<VirtualFile>>>> MSG_FILES_BY_KEY =
+            Key.create("com.ganguo.java.plugin.inspection.MsgFilesByKey");
+
+    /**
+     * 是否为ExceptionMsg.java中的枚举
+     */
+    static boolean isMsgClass(PsiClass psiClass) {
+        PsiFile file = psiClass.getContainingFile();
+        return psiClass.isEnum() && file != null && Filenames.MSG_CLASS.equals(file.getName());
+    }
+
+    /**
+     * exception_msg*.properties所在的i18n目录，检查和修复都从这里查找所有语言的文件
+     */
+    @Nullable
+    static VirtualFile findI18nDir(Project project) {
+        return ProjectUtils.getI18nDirFile(project);
+    }
+
+    /**
+     * 是否为i18n目录下的exception_msg*.properties
+     */
+    static boolean isMsgBundle(Project project, VirtualFile file) {
+        if (!file.getName().matches(Filenames.MSG_PROPERTIES_PATTERN)) return false;
+
+        VirtualFile i18nDir = findI18nDir(project);
+        return i18nDir != null && i18nDir.equals(file.getParent());
+    }
+
+    /**
+     * 每个Key在i18n目录下的哪些exception_msg*.properties中，整个检查只查询一次索引，
+     * 这些文件修改或i18n目录中增删文件后才重新查询
+     *
+     * @param files i18n目录下的exception_msg*.properties
+     */
+    static Map<String, Set<VirtualFile>> getMsgFilesByKey(Project project, List<VirtualFile> files) {
+        return CachedValuesManager.getManager(project).getCachedValue(project, MSG_FILES_BY_KEY, () -> {
+            List<Object> dependencies = new ArrayList<>();
+            PsiManager psiManager = PsiManager.getInstance(project);
+            for (VirtualFile file : files) {
+                PsiFile psiFile = psiManager.findFile(file);
+                dependencies.add(psiFile != null ? psiFile : file);
+            }
+            dependencies.add(VirtualFileManager.VFS_STRUCTURE_MODIFICATIONS);
+
+            Map<String, Set<VirtualFile>> filesByKey = IndexUtils.getMsgFilesByKey(project,
+                    GlobalSearchScope.filesScope(project, files));
+            return CachedValueProvider.Result.create(Collections.unmodifiableMap(filesByKey),
+                    dependencies.toArray());
+        }, false);
+    }
+
+    /**
+     * 查找ExceptionMsg枚举
+     */
+    @Nullable
+    static PsiClass findMsgClass(Project project) {
+        return Arrays.stream(IndexUtils.getFilesByName(project, Filenames.MSG_CLASS))
+                .findFirst()
+                .map(file -> PsiTreeUtil.findChildOfType(file, PsiClass.class))
+                .orElse(null);
+    }
+
+    /**
+     * ExceptionMsg中所有的枚举常量名，ExceptionMsg.java修改后才重新计算
+     */
+    static Set<String> getConstantNames(PsiClass msgClass) {
+        return CachedValuesManager.getCachedValue(msgClass, () -> {
+            Set<String> names = Arrays.stream(msgClass.getFields())
+                    .filter(field -> field instanceof PsiEnumConstant)
+                    .map(PsiField::getName)
+                    .collect(Collectors.toCollection(HashSet::new));
+            return CachedValueProvider.Result.create(Collections.unmodifiableSet(names),
+                    msgClass.getContainingFile());
+        });
+    }
+
+    /**
+     * 获取文档注释的文本
+     */
+    static String getDocText(PsiDocCommentOwner owner) {
+        PsiDocComment docComment = owner.getDocComment();
+        if (docComment == null) return "";
+
+        return Arrays.stream(docComment.getDescriptionElements())
+                .map(PsiElement::getText)
+                .collect(Collectors.joining())
+                .trim();
+    }
+
+    /**
+     * 在ExceptionMsg的末尾添加枚举常量，需在写操作中调用
+     *
+     * @return 添加后的枚举常量
+     */
+    static PsiElement addConstant(PsiClass msgClass, String key, String value) {
+        Project project = msgClass.getProject();
+        PsiElementFactory elementFactory = JavaPsiFacade.getElementFactory(project);
+
+        PsiEnumConstant psiEnumConstant = elementFactory.createEnumConstantFromText(key, null);
+        psiEnumConstant.addBefore(PsiUtils.createPsiDocComment(elementFactory, value),
+                psiEnumConstant.getFirstChild());
+        psiEnumConstant.addBefore(PsiParserFacade.SERVICE.getInstance(project).createWhiteSpaceFromText("\n\n"),
+                psiEnumConstant.getFirstChild());
+        return msgClass.add(psiEnumConstant);
+    }
+}
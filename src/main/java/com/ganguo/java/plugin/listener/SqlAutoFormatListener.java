@@ -0,0 +1,208 @@
+package com.ganguo.java.plugin.listener;
+
+import com.ganguo.java.plugin.service.SettingService;
+import com.ganguo.java.plugin.sql.InsertFormatter;
+import com.ganguo.java.plugin.sql.SqlEdit;
+import com.ganguo.java.plugin.sql.SqlFormatter;
+import com.ganguo.java.plugin.sql.SqlLexer;
+import com.ganguo.java.plugin.sql.StatementFormatter;
+import com.ganguo.java.plugin.util.WriteActions;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.command.CommandProcessor;
+import com.intellij.openapi.command.undo.UndoManager;
+import com.intellij.openapi.components.ServiceManager;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.editor.EditorFactory;
+import com.intellij.openapi.editor.event.DocumentEvent;
+import com.intellij.openapi.editor.event.DocumentListener;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.project.ProjectLocator;
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.util.TextRange;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.util.Alarm;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+/**
+ * 输入时自动格式化SQL脚本中的INSERT语句，在设置中开启。
+ * 只处理用户在编辑器中的输入，批量修改、重新加载文件等不是输入引起的修改不处理。
+ * 记录每个文档被修改的范围，停止输入一段时间后在后台只格式化该范围所在的语句，
+ * 格式化期间文档又被修改时放弃结果，等下次停止输入后重新格式化
+ */
+@Slf4j
+public class SqlAutoFormatListener implements DocumentListener {
+
+    /** 文档中还没有格式化的修改范围 */
+    private static final Key<TextRange> DIRTY_RANGE = Key.create("Ganguo.SqlDirtyRange");
+
+    /** 停止输入多久后格式化 */
+    private static final int DELAY_MILLIS = 800;
+
+    /** 只格式化INSERT语句，其他语句输入时经常处于未完成状态，由格式化SQL脚本操作处理 */
+    private static final List<StatementFormatter> FORMATTERS = Collections.singletonList(new InsertFormatter());
+
+    private final Alarm alarm;
+    private final Set<Document> pendingDocuments = Collections.newSetFromMap(new WeakHashMap<>());
+
+    /** 正在写回格式化结果，忽略由此引起的修改 */
+    private boolean applying;
+
+    public SqlAutoFormatListener(Disposable parent) {
+        alarm = new Alarm(Alarm.ThreadToUse.SWING_THREAD, parent);
+    }
+
+    @Override
+    public void documentChanged(@NotNull DocumentEvent event) {
+        if (applying || event.isWholeTextReplaced()) return;
+
+        // 只处理在编辑器中输入引起的修改
+        Document document = event.getDocument();
+        if (document.isInBulkUpdate() || CommandProcessor.getInstance().getCurrentCommand() == null ||
+                EditorFactory.getInstance().getEditors(document).length == 0) return;
+
+        Project project = getProject(document);
+        if (project == null || !ServiceManager.getService(project, SettingService.class).isAutoFormatSql()) return;
+
+        // 撤销自动格式化时不能再次格式化
+        UndoManager undoManager = UndoManager.getInstance(project);
+        if (undoManager.isUndoInProgress() || undoManager.isRedoInProgress()) return;
+
+        document.putUserData(DIRTY_RANGE, union(document.getUserData(DIRTY_RANGE), event));
+        pendingDocuments.add(document);
+
+        alarm.cancelAllRequests();
+        alarm.addRequest(this::formatPendingDocuments, DELAY_MILLIS);
+    }
+
+    private void formatPendingDocuments() {
+        List<Document> documents = new ArrayList<>(pendingDocuments);
+        pendingDocuments.clear();
+
+        for (Document document : documents) {
+            TextRange range = document.getUserData(DIRTY_RANGE);
+            document.putUserData(DIRTY_RANGE, null);
+
+            Project project = getProject(document);
+            if (range != null && project != null && !project.isDisposed()) {
+                format(project, document, range);
+            }
+        }
+    }
+
+    private void format(Project project, Document document, TextRange range) {
+        CharSequence text = document.getImmutableCharSequence();
+        long stamp = document.getModificationStamp();
+
+        ApplicationManager.getApplication().executeOnPooledThread(() -> {
+            List<SqlEdit> edits;
+            try {
+                int start = findStatementStart(text, Math.min(range.getStartOffset(), text.length()));
+                int end = findStatementEnd(text, start, range.getEndOffset());
+                edits = SqlFormatter.formatEdits(text, start, end, null, FORMATTERS);
+            } catch (Exception e) {
+                log.error("auto format sql fail", e);
+                return;
+            }
+            if (edits.isEmpty()) return;
+
+            ApplicationManager.getApplication().invokeLater(() -> {
+                if (project.isDisposed() || document.getModificationStamp() != stamp) return;
+
+                applying = true;
+                try {
+                    new WriteActions(project).add(() -> SqlFormatter.applyEdits(document, edits)).run();
+                } finally {
+                    applying = false;
+                }
+            });
+        });
+    }
+
+    /**
+     * SQL文件所在的项目，不是SQL文件时返回null
+     */
+    @Nullable
+    private static Project getProject(Document document) {
+        VirtualFile file = FileDocumentManager.getInstance().getFile(document);
+        if (file == null || !file.getName().endsWith(".sql")) return null;
+        return ProjectLocator.getInstance().guessProjectForFile(file);
+    }
+
+    /**
+     * 合并修改范围，原范围在修改位置之后的部分随修改移动
+     */
+    private static TextRange union(@Nullable TextRange range, DocumentEvent event) {
+        int offset = event.getOffset();
+        int end = offset + event.getNewLength();
+        if (range == null) {
+            return new TextRange(offset, end);
+        }
+
+        int oldEnd = offset + event.getOldLength();
+        int shift = event.getNewLength() - event.getOldLength();
+        int rangeStart = moveOffset(range.getStartOffset(), offset, oldEnd, shift);
+        int rangeEnd = moveOffset(range.getEndOffset(), offset, oldEnd, shift);
+        return new TextRange(Math.min(rangeStart, offset), Math.max(rangeEnd, end));
+    }
+
+    private static int moveOffset(int position, int offset, int oldEnd, int shift) {
+        if (position <= offset) return position;
+        if (position >= oldEnd) return position + shift;
+        // 在被替换的部分中
+        return offset;
+    }
+
+    /**
+     * 向前查找语句开始的位置，即上一个在行尾的分号之后，没有时为文本开头。
+     * 脚本中的语句一般以行尾的分号结束，不用从头分析整个文本
+     */
+    static int findStatementStart(CharSequence text, int offset) {
+        // 从当前位置到行尾是否只有空白
+        boolean lineEnd = true;
+        for (int i = offset; i < text.length(); i++) {
+            char ch = text.charAt(i);
+            if (ch == '\n' || ch == '\r') break;
+            if (ch > ' ') {
+                lineEnd = false;
+                break;
+            }
+        }
+
+        for (int i = offset - 1; i >= 0; i--) {
+            char ch = text.charAt(i);
+            if (ch == '\n' || ch == '\r') {
+                lineEnd = true;
+            } else if (ch == ';' && lineEnd) {
+                return i + 1;
+            } else if (ch > ' ') {
+                lineEnd = false;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * 从语句开始的位置向后分析，找到修改范围之后的第一个分号
+     *
+     * @return 分号的下一个位置，没有时为文本末尾
+     */
+    static int findStatementEnd(CharSequence text, int start, int offset) {
+        SqlLexer lexer = new SqlLexer(text, start, text.length());
+        while (lexer.next() != null) {
+            if (lexer.isSymbol(';') && lexer.getTokenEnd() >= offset) {
+                return lexer.getTokenEnd();
+            }
+        }
+        return text.length();
+    }
+}
@@ -0,0 +1,22 @@
+package com.ganguo.java.plugin.service;
+
+import com.ganguo.java.plugin.translate.Glossary;
+import com.intellij.openapi.components.ServiceManager;
+import com.intellij.openapi.project.Project;
+
+/**
+ * 项目的翻译术语表，来自项目根目录下的translate_glossary.txt
+ */
+public interface GlossaryService {
+
+    static GlossaryService getInstance(Project project) {
+        return ServiceManager.getService(project, GlossaryService.class);
+    }
+
+    /**
+     * 当前的术语表，文件修改后重新加载，没有术语文件时为空的术语表
+     *
+     * @return 术语表，不可变
+     */
+    Glossary getGlossary();
+}
@@ -0,0 +1,48 @@
+package com.ganguo.java.plugin.service;
+
+import com.ganguo.java.plugin.constant.Filenames;
+import com.ganguo.java.plugin.translate.Glossary;
+import com.ganguo.java.plugin.util.ProjectUtils;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VfsUtilCore;
+import com.intellij.openapi.vfs.VirtualFile;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+
+@Slf4j
+public class GlossaryServiceImpl implements GlossaryService {
+
+    private final Project project;
+
+    private Glossary glossary = Glossary.EMPTY;
+    /** 已加载的术语文件的修改标记，没有加载时为-1 */
+    private long modificationStamp = -1;
+
+    public GlossaryServiceImpl(Project project) {
+        this.project = project;
+    }
+
+    @Override
+    public synchronized Glossary getGlossary() {
+        VirtualFile root = ProjectUtils.getRootFile(project);
+        VirtualFile file = root == null ? null : root.findChild(Filenames.TRANSLATE_GLOSSARY);
+        if (file == null || !file.isValid()) {
+            glossary = Glossary.EMPTY;
+            modificationStamp = -1;
+            return glossary;
+        }
+
+        if (file.getModificationStamp() != modificationStamp) {
+            try {
+                glossary = Glossary.parse(VfsUtilCore.loadText(file));
+                log.info("load glossary {} terms", glossary.size());
+            } catch (IOException e) {
+                log.warn("load glossary fail", e);
+                glossary = Glossary.EMPTY;
+            }
+            modificationStamp = file.getModificationStamp();
+        }
+        return glossary;
+    }
+}
@@ -0,0 +1,48 @@
+package com.ganguo.java.plugin.service;
+
+import com.ganguo.java.plugin.util.SafeProperties;
+import com.intellij.openapi.components.ServiceManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+
+import java.io.IOException;
+
+/**
+ * exception_msg*.properties的缓存，文件没有修改时不会重复读取和解析
+ */
+public interface MsgBundleService {
+
+    static MsgBundleService getInstance(Project project) {
+        return ServiceManager.getService(project, MsgBundleService.class);
+    }
+
+    /**
+     * 获取解析后的配置文件，需要在读操作中调用。
+     * 返回的对象由所有调用者和线程共用，不能修改，需要修改时使用{@link SafeProperties#copy()}的副本
+     *
+     * @param file exception_msg*.properties文件
+     * @return 配置文件
+     */
+    SafeProperties getProperties(VirtualFile file) throws IOException;
+
+    /**
+     * 副本写入文件成功后调用，缓存写入的内容和它的值索引，下次读取时不用重新解析。
+     * 缓存直接使用该对象，调用后调用者不能再修改它
+     *
+     * @param file       文件
+     * @param properties 已写入文件的配置文件
+     */
+    void update(VirtualFile file, SafeProperties properties);
+
+    /**
+     * 清除文件的缓存
+     *
+     * @param file 文件
+     */
+    void invalidate(VirtualFile file);
+
+    /**
+     * 清除所有缓存
+     */
+    void invalidateAll();
+}
@@ -0,0 +1,93 @@
+package com.ganguo.java.plugin.service;
+
+import com.ganguo.java.plugin.constant.Filenames;
+import com.ganguo.java.plugin.util.FileUtils;
+import com.ganguo.java.plugin.util.SafeProperties;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.openapi.vfs.newvfs.BulkFileListener;
+import com.intellij.openapi.vfs.newvfs.events.VFileContentChangeEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Slf4j
+public class MsgBundleServiceImpl implements MsgBundleService {
+
+    private final Map<VirtualFile, SafeProperties> cache = new ConcurrentHashMap<>();
+
+    public MsgBundleServiceImpl(Project project) {
+        project.getMessageBus().connect(project).subscribe(VirtualFileManager.VFS_CHANGES, new BulkFileListener() {
+            @Override
+            public void after(@NotNull List<? extends VFileEvent> events) {
+                events.forEach(MsgBundleServiceImpl.this::onFileChanged);
+            }
+        });
+    }
+
+    @Override
+    public SafeProperties getProperties(VirtualFile file) throws IOException {
+        SafeProperties properties = cache.get(file);
+        if (properties != null && properties.getContext().getSourceStamp() == getModificationStamp(file)) {
+            return properties;
+        }
+
+        properties = FileUtils.loadProperties(file);
+        cache.put(file, properties);
+        return properties;
+    }
+
+    @Override
+    public void update(VirtualFile file, SafeProperties properties) {
+        // 整个重写时没有行号，不能增量写入，下次读取时重新解析
+        if (properties.getContext().getSourceStamp() == -1) {
+            invalidate(file);
+            return;
+        }
+        cache.put(file, properties);
+    }
+
+    @Override
+    public void invalidate(VirtualFile file) {
+        cache.remove(file);
+    }
+
+    @Override
+    public void invalidateAll() {
+        cache.clear();
+    }
+
+    /**
+     * 文件被外部修改、删除、移动时清除缓存，保存插件自身修改的内容时保留缓存
+     */
+    private void onFileChanged(VFileEvent event) {
+        VirtualFile file = event.getFile();
+        if (file == null || !file.getName().matches(Filenames.MSG_PROPERTIES_PATTERN)) return;
+
+        SafeProperties properties = cache.get(file);
+        if (properties == null) return;
+
+        if (event instanceof VFileContentChangeEvent && ((VFileContentChangeEvent) event).getModificationStamp() ==
+                properties.getContext().getSourceStamp()) {
+            return;
+        }
+        log.debug("invalidate {}", file.getPath());
+        invalidate(file);
+    }
+
+    /**
+     * 文件当前内容的修改标记，文件已在编辑器中打开时以Document为准
+     */
+    private long getModificationStamp(VirtualFile file) {
+        Document document = FileDocumentManager.getInstance().getCachedDocument(file);
+        return document != null ? document.getModificationStamp() : file.getModificationStamp();
+    }
+}
@@ -1,5 +1,6 @@
 package com.ganguo.java.plugin.service;
 
+import com.ganguo.java.plugin.constant.SqlDialect;
 import com.ganguo.java.plugin.constant.TemplateName;
 import com.sun.istack.Nullable;
 
@@ -17,6 +18,24 @@ public interface SettingService {
 
     void setTranslateSecret(String secret);
 
+    /**
+     * 是否在输入时自动格式化SQL脚本中的INSERT语句
+     */
+    boolean isAutoFormatSql();
+
+    void setAutoFormatSql(boolean autoFormatSql);
+
+    SqlDialect getSqlDialect();
+
+    void setSqlDialect(@Nullable SqlDialect dialect);
+
+    /**
+     * 自定义的SQL关键字，用空白或逗号分隔
+     */
+    String getSqlKeywords();
+
+    void setSqlKeywords(@Nullable String keywords);
+
     String getTemplate(TemplateName name);
 
     void setTemplate(TemplateName name, @Nullable String content);
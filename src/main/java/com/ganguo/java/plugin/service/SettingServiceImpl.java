@@ -1,11 +1,13 @@
 package com.ganguo.java.plugin.service;
 
+import com.ganguo.java.plugin.constant.SqlDialect;
 import com.ganguo.java.plugin.constant.TemplateName;
 import com.ganguo.java.plugin.util.ProjectUtils;
 import com.intellij.ide.util.PropertiesComponent;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.util.io.FileUtil;
 import com.sun.istack.Nullable;
+import org.apache.commons.lang3.EnumUtils;
 import org.apache.commons.lang3.StringUtils;
 
 import java.io.IOException;
@@ -17,6 +19,9 @@ public class SettingServiceImpl implements SettingService {
     private static final String KEY_TEMPLATE = "template_";
     private static final String KEY_TRANSLATE_APP_ID = "translate_app_id";
     private static final String KEY_TRANSLATE_SECRET = "translate_secret";
+    private static final String KEY_AUTO_FORMAT_SQL = "auto_format_sql";
+    private static final String KEY_SQL_DIALECT = "sql_dialect";
+    private static final String KEY_SQL_KEYWORDS = "sql_keywords";
 
     private final Project mProject;
     private final PropertiesComponent projectProperties;
@@ -70,6 +75,45 @@ public class SettingServiceImpl implements SettingService {
         applicationProperties.setValue(KEY_TRANSLATE_SECRET, secret);
     }
 
+    @Override
+    public boolean isAutoFormatSql() {
+        return projectProperties.getBoolean(KEY_AUTO_FORMAT_SQL, false);
+    }
+
+    @Override
+    public void setAutoFormatSql(boolean autoFormatSql) {
+        projectProperties.setValue(KEY_AUTO_FORMAT_SQL, autoFormatSql, false);
+    }
+
+    @Override
+    public SqlDialect getSqlDialect() {
+        SqlDialect dialect = EnumUtils.getEnum(SqlDialect.class, projectProperties.getValue(KEY_SQL_DIALECT));
+        return dialect != null ? dialect : SqlDialect.DEFAULT;
+    }
+
+    @Override
+    public void setSqlDialect(@Nullable SqlDialect dialect) {
+        if (dialect == null) {
+            projectProperties.unsetValue(KEY_SQL_DIALECT);
+        } else {
+            projectProperties.setValue(KEY_SQL_DIALECT, dialect.name());
+        }
+    }
+
+    @Override
+    public String getSqlKeywords() {
+        return projectProperties.getValue(KEY_SQL_KEYWORDS, "");
+    }
+
+    @Override
+    public void setSqlKeywords(@Nullable String keywords) {
+        if (StringUtils.isBlank(keywords)) {
+            projectProperties.unsetValue(KEY_SQL_KEYWORDS);
+        } else {
+            projectProperties.setValue(KEY_SQL_KEYWORDS, keywords);
+        }
+    }
+
     @Override
     public String getTemplate(TemplateName name) {
         String template = projectProperties.getValue(getTemplateKey(name));
@@ -95,6 +139,9 @@ public class SettingServiceImpl implements SettingService {
     @Override
     public void reset() {
         setPackageName(null);
+        setAutoFormatSql(false);
+        setSqlDialect(null);
+        setSqlKeywords(null);
         Arrays.stream(TemplateName.values())
                 .forEach(name -> setTemplate(name, null));
     }
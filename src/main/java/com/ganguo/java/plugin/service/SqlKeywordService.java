@@ -0,0 +1,27 @@
+package com.ganguo.java.plugin.service;
+
+import com.ganguo.java.plugin.sql.KeywordSet;
+import com.intellij.openapi.components.ServiceManager;
+import com.intellij.openapi.project.Project;
+
+/**
+ * 项目中所有SQL操作共用的关键字，由设置中的SQL方言和自定义关键字组成
+ */
+public interface SqlKeywordService {
+
+    static SqlKeywordService getInstance(Project project) {
+        return ServiceManager.getService(project, SqlKeywordService.class);
+    }
+
+    /**
+     * 当前的关键字，返回的集合不可变，设置修改后由新的集合整体替换，一次操作中应只获取一次
+     *
+     * @return 关键字
+     */
+    KeywordSet getKeywords();
+
+    /**
+     * 按当前设置重新加载关键字
+     */
+    void reload();
+}
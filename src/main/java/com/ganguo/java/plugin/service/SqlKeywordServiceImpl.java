@@ -0,0 +1,51 @@
+package com.ganguo.java.plugin.service;
+
+import com.ganguo.java.plugin.sql.KeywordSet;
+import com.intellij.openapi.components.ServiceManager;
+import com.intellij.openapi.project.Project;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class SqlKeywordServiceImpl implements SqlKeywordService {
+
+    /** 自定义关键字的分隔符 */
+    private static final String SEPARATORS = " ,，;；\t\r\n";
+
+    private final SettingService settingService;
+
+    private volatile KeywordSet keywords;
+
+    public SqlKeywordServiceImpl(Project project) {
+        settingService = ServiceManager.getService(project, SettingService.class);
+    }
+
+    @Override
+    public KeywordSet getKeywords() {
+        KeywordSet result = keywords;
+        if (result == null) {
+            result = load();
+            keywords = result;
+        }
+        return result;
+    }
+
+    @Override
+    public void reload() {
+        keywords = load();
+    }
+
+    /**
+     * 加载方言的关键字和自定义关键字，生成新的集合
+     */
+    private KeywordSet load() {
+        List<String> words = new ArrayList<>(settingService.getSqlDialect().loadKeywords());
+        String customKeywords = settingService.getSqlKeywords();
+        if (StringUtils.isNotEmpty(customKeywords)) {
+            words.addAll(Arrays.asList(StringUtils.split(customKeywords, SEPARATORS)));
+        }
+        return new KeywordSet(words);
+    }
+}
@@ -0,0 +1,81 @@
+package com.ganguo.java.plugin.sql;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 格式化有多个修改项的ALTER TABLE语句，每个修改项一行，对齐字段定义
+ * <pre>
+ * ALTER TABLE `user`
+ *     ADD COLUMN    `phone` varchar(20) NOT NULL DEFAULT '' COMMENT '手机',
+ *     MODIFY COLUMN `name`  varchar(64) NOT NULL            COMMENT '名称',
+ *     ADD INDEX `idx_phone` (`phone`);
+ * </pre>
+ */
+public class AlterTableFormatter implements StatementFormatter {
+
+    private static final String INDENT = "    ";
+
+    @Override
+    public String format(SqlStatement statement) {
+        if (!statement.isWord(0, "alter") || statement.hasComment()) return null;
+
+        int index = statement.nextNonWhiteSpace(0);
+        if (index == -1 || !statement.isWord(index, "table")) return null;
+
+        // 表名，可能带库名
+        int nameIndex = statement.nextNonWhiteSpace(index);
+        if (nameIndex == -1 || !statement.isIdentifier(nameIndex)) return null;
+        int nameEnd = nameIndex + 1;
+        while (nameEnd + 1 < statement.size() && statement.isSymbol(nameEnd, '.') &&
+                statement.isIdentifier(nameEnd + 1)) {
+            nameEnd += 2;
+        }
+
+        // 只有一个修改项时保持一行
+        List<int[]> ranges = statement.splitByComma(nameEnd, statement.size() - 1);
+        if (ranges.size() < 2) return null;
+
+        List<String[]> rows = new ArrayList<>();
+        for (int[] range : ranges) {
+            String[] row = parseSpecification(statement, range[0], range[1]);
+            rows.add(row != null ? row : new String[]{statement.getNormalizedText(range[0], range[1])});
+        }
+        List<String> lines = SqlAligner.align(rows);
+
+        StringBuilder sb = new StringBuilder(statement.getText(0, nameEnd));
+        for (int i = 0; i < lines.size(); i++) {
+            sb.append('\n').append(INDENT).append(lines.get(i)).append(i < lines.size() - 1 ? ',' : ';');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 解析ADD/MODIFY/CHANGE [COLUMN]修改项
+     *
+     * @return 操作、字段名、类型、属性和注释，不是字段修改项时返回null
+     */
+    private static String[] parseSpecification(SqlStatement statement, int fromIndex, int toIndex) {
+        int index = statement.skipWhiteSpace(fromIndex, toIndex);
+        if (index == toIndex) return null;
+        boolean change = statement.isWord(index, "change");
+        if (!change && !statement.isWord(index, "add") && !statement.isWord(index, "modify")) return null;
+
+        int columnIndex = statement.skipWhiteSpace(index + 1, toIndex);
+        if (columnIndex < toIndex && statement.isWord(columnIndex, "column")) {
+            columnIndex = statement.skipWhiteSpace(columnIndex + 1, toIndex);
+        }
+        // CHANGE后面是原字段名
+        if (change && columnIndex < toIndex) {
+            columnIndex = statement.skipWhiteSpace(columnIndex + 1, toIndex);
+        }
+
+        String[] column = CreateTableFormatter.parseColumn(statement, columnIndex, toIndex);
+        if (column == null) return null;
+
+        String[] row = new String[column.length + 1];
+        row[0] = statement.getNormalizedText(index, columnIndex);
+        System.arraycopy(column, 0, row, 1, column.length);
+        return row;
+    }
+}
@@ -0,0 +1,106 @@
+package com.ganguo.java.plugin.sql;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 格式化CREATE TABLE语句，每个字段一行，对齐字段名、类型、属性和注释
+ * <pre>
+ * CREATE TABLE `user` (
+ *   `id`   bigint(20)  NOT NULL AUTO_INCREMENT COMMENT 'ID',
+ *   `name` varchar(64) NOT NULL DEFAULT ''     COMMENT '名称',
+ *   PRIMARY KEY (`id`)
+ * ) ENGINE=InnoDB COMMENT='用户';
+ * </pre>
+ */
+public class CreateTableFormatter implements StatementFormatter {
+
+    private static final String INDENT = "  ";
+
+    /** 表定义中不是字段的部分的开头 */
+    private static final String[] NON_COLUMN_KEYWORDS = {"primary", "key", "index", "unique", "constraint",
+            "foreign", "fulltext", "spatial", "check"};
+
+    @Override
+    public String format(SqlStatement statement) {
+        if (!statement.isWord(0, "create") || statement.hasComment()) return null;
+
+        int index = statement.nextNonWhiteSpace(0);
+        if (index != -1 && statement.isWord(index, "temporary")) {
+            index = statement.nextNonWhiteSpace(index);
+        }
+        if (index == -1 || !statement.isWord(index, "table")) return null;
+
+        // 表名后面必须是字段定义，CREATE TABLE ... LIKE/SELECT不处理
+        int open = statement.indexOfSymbol('(', index, statement.size());
+        if (open == -1 || statement.indexOfWord("like", index, open) != -1 ||
+                statement.indexOfWord("select", index, open) != -1) return null;
+        int close = statement.findClosing(open);
+        if (close == -1) return null;
+
+        List<String[]> rows = new ArrayList<>();
+        for (int[] range : statement.splitByComma(open + 1, close)) {
+            String[] column = parseColumn(statement, range[0], range[1]);
+            rows.add(column != null ? column
+                    : new String[]{statement.getNormalizedText(range[0], range[1])});
+        }
+        List<String> lines = SqlAligner.align(rows);
+
+        StringBuilder sb = new StringBuilder(statement.getText(0, open)).append(" (\n");
+        for (int i = 0; i < lines.size(); i++) {
+            sb.append(INDENT).append(lines.get(i));
+            if (i < lines.size() - 1) {
+                sb.append(',');
+            }
+            sb.append('\n');
+        }
+        sb.append(')');
+        String options = statement.getText(close + 1, statement.size() - 1);
+        if (!options.isEmpty()) {
+            sb.append(' ').append(options);
+        }
+        return sb.append(';').toString();
+    }
+
+    /**
+     * 解析字段定义
+     *
+     * @return 字段名、类型、属性和注释，属性和注释可以为空字符串，不是字段定义时返回null
+     */
+    @Nullable
+    static String[] parseColumn(SqlStatement statement, int fromIndex, int toIndex) {
+        int nameIndex = statement.skipWhiteSpace(fromIndex, toIndex);
+        if (nameIndex == toIndex || !statement.isIdentifier(nameIndex)) return null;
+        for (String keyword : NON_COLUMN_KEYWORDS) {
+            if (statement.isWord(nameIndex, keyword)) return null;
+        }
+
+        // 类型到括号外的第一个空白为止，如varchar(64)、decimal(10, 2)
+        int typeStart = statement.skipWhiteSpace(nameIndex + 1, toIndex);
+        if (typeStart == toIndex) return null;
+        int typeEnd = typeStart;
+        int depth = 0;
+        while (typeEnd < toIndex && (depth > 0 || !statement.isWhiteSpace(typeEnd))) {
+            if (statement.isSymbol(typeEnd, '(')) {
+                depth++;
+            } else if (statement.isSymbol(typeEnd, ')')) {
+                depth--;
+            }
+            typeEnd++;
+        }
+
+        int commentIndex = statement.indexOfWord("comment", typeEnd, toIndex);
+        if (commentIndex == -1) {
+            commentIndex = toIndex;
+        }
+
+        return new String[]{
+                statement.getText(nameIndex, nameIndex + 1),
+                statement.getNormalizedText(typeStart, typeEnd),
+                statement.getNormalizedText(typeEnd, commentIndex),
+                statement.getNormalizedText(commentIndex, toIndex)
+        };
+    }
+}
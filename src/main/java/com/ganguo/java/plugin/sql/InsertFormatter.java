@@ -0,0 +1,251 @@
+package com.ganguo.java.plugin.sql;
+
+import com.ganguo.java.plugin.util.MyStringUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 格式化INSERT语句，对齐字段和值
+ * <pre>
+ * INSERT INTO `user`
+ * (`id`, `name`, `phone`        )
+ * VALUES
+ * (   1, '小明' , '13414850000'  ),
+ * (   2, 'Jack', '8613414850001');
+ * </pre>
+ * 值不创建字符串，只记录在文本中的位置，计算列宽时遍历一次，最后直接写到预先分配好的StringBuilder中
+ */
+public class InsertFormatter implements StatementFormatter {
+
+    @Override
+    public String format(SqlStatement statement) {
+        // 注释可能在字段或值中间，格式化后会吞掉后面的内容，含有注释的语句不处理
+        if (!statement.isWord(0, "insert") || statement.hasComment()) return null;
+
+        // 表名部分
+        int index = statement.indexOfSymbol('(', 0, statement.size());
+        if (index == -1) return null;
+        String insertStatement = statement.getText(0, index);
+
+        // 字段
+        Cells cells = new Cells(statement.getText(), statement.size() >> 2);
+        int close = readRow(statement, index, cells);
+        if (close == -1) return null;
+        List<String> columns = new ArrayList<>();
+        for (int i = 0; i < cells.size; i++) {
+            String column = cells.toString(i);
+            if (!column.isEmpty()) {
+                columns.add(MyStringUtils.wrap(column.replace("`", ""), "`"));
+            }
+        }
+        cells.clear();
+
+        // VALUES关键字
+        index = statement.nextNonWhiteSpace(close);
+        if (index == -1 || !statement.isWord(index, "values")) return null;
+        String valueKeyword = statement.getText(index, index + 1);
+
+        // 值
+        while (true) {
+            index = statement.nextNonWhiteSpace(index);
+            if (index == -1 || !statement.isSymbol(index, '(')) return null;
+
+            close = readRow(statement, index, cells);
+            if (close == -1) return null;
+
+            index = statement.nextNonWhiteSpace(close);
+            if (index == -1 || statement.isSymbol(index, ';')) break;
+            if (!statement.isSymbol(index, ',')) return null;
+        }
+
+        return format(insertStatement, columns.toArray(new String[0]), valueKeyword, cells);
+    }
+
+    private static String format(String insertStatement, String[] columns, String valueKeyword, Cells cells) {
+        CharSequence text = cells.text;
+
+        // 只遍历一次所有值，计算每个值的显示长度和各列的最大宽度
+        int[] columnWidths = new int[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            columnWidths[i] = MyStringUtils.width(columns[i]);
+        }
+        int[] widths = columnWidths.clone();
+        int[] cellWidths = new int[cells.size];
+        for (int row = 0; row < cells.rowCount; row++) {
+            int rowStart = cells.getRowStart(row);
+            for (int i = rowStart; i < cells.rowEnds[row]; i++) {
+                cellWidths[i] = MyStringUtils.width(text, cells.getStart(i), cells.getEnd(i));
+                int column = i - rowStart;
+                if (column < widths.length) {
+                    widths[column] = Math.max(widths[column], cellWidths[i]);
+                }
+            }
+        }
+
+        StringBuilder sb = new StringBuilder(getLength(insertStatement, columns, columnWidths, valueKeyword,
+                cells, cellWidths, widths));
+
+        sb.append(insertStatement).append('\n').append('(');
+        for (int i = 0; i < columns.length; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(columns[i]);
+            appendBlank(sb, widths[i] - columnWidths[i]);
+        }
+        sb.append(")\n").append(valueKeyword).append('\n');
+
+        // 字符串左对齐，其他右对齐
+        for (int row = 0; row < cells.rowCount; row++) {
+            if (row > 0) {
+                sb.append(",\n");
+            }
+            sb.append('(');
+            int rowStart = cells.getRowStart(row);
+            for (int i = rowStart; i < cells.rowEnds[row]; i++) {
+                int column = i - rowStart;
+                if (column > 0) {
+                    sb.append(", ");
+                }
+                int start = cells.getStart(i);
+                int end = cells.getEnd(i);
+                int n = column < widths.length ? widths[column] - cellWidths[i] : 0;
+                if (n > 0 && !isQuoted(text, start, end)) {
+                    appendBlank(sb, n);
+                    sb.append(text, start, end);
+                } else {
+                    sb.append(text, start, end);
+                    appendBlank(sb, n);
+                }
+            }
+            sb.append(')');
+        }
+        return sb.append(';').toString();
+    }
+
+    /**
+     * 计算格式化结果的长度，用于一次分配StringBuilder
+     */
+    private static int getLength(String insertStatement, String[] columns, int[] columnWidths, String valueKeyword,
+                                 Cells cells, int[] cellWidths, int[] widths) {
+        int length = insertStatement.length() + valueKeyword.length() + 6;
+        for (int i = 0; i < columns.length; i++) {
+            length += columns[i].length() + Math.max(0, widths[i] - columnWidths[i]) + 2;
+        }
+        for (int row = 0; row < cells.rowCount; row++) {
+            int rowStart = cells.getRowStart(row);
+            length += 4;
+            for (int i = rowStart; i < cells.rowEnds[row]; i++) {
+                int column = i - rowStart;
+                length += cells.getEnd(i) - cells.getStart(i) + 2;
+                if (column < widths.length) {
+                    length += Math.max(0, widths[column] - cellWidths[i]);
+                }
+            }
+        }
+        return length;
+    }
+
+    /**
+     * 读取括号中用逗号分隔的各项，作为一行添加到cells中
+     *
+     * @param open 左括号的下标
+     * @return 右括号的下标，括号不闭合时返回-1
+     */
+    private static int readRow(SqlStatement statement, int open, Cells cells) {
+        int depth = 0;
+        int cellStart = open + 1;
+        for (int i = open; i < statement.size(); i++) {
+            if (statement.isSymbol(i, '(')) {
+                depth++;
+            } else if (statement.isSymbol(i, ')')) {
+                if (--depth == 0) {
+                    cells.add(statement.getTokenStart(cellStart), statement.getTokenStart(i));
+                    cells.endRow();
+                    return i;
+                }
+            } else if (depth == 1 && statement.isSymbol(i, ',')) {
+                cells.add(statement.getTokenStart(cellStart), statement.getTokenStart(i));
+                cellStart = i + 1;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isQuoted(CharSequence text, int start, int end) {
+        for (int i = start; i < end; i++) {
+            char ch = text.charAt(i);
+            if (ch == '\'' || ch == '"') return true;
+        }
+        return false;
+    }
+
+    private static void appendBlank(StringBuilder sb, int n) {
+        for (int i = 0; i < n; i++) {
+            sb.append(' ');
+        }
+    }
+
+    /**
+     * 所有行的单元格在文本中的位置，每个单元格占两个int，去掉了首尾空白
+     */
+    private static class Cells {
+        private final CharSequence text;
+
+        /** 单元格数量 */
+        private int size;
+        /** 单元格的开始和结束位置 */
+        private int[] offsets;
+
+        private int rowCount;
+        /** 每行最后一个单元格的下一个下标 */
+        private int[] rowEnds = new int[16];
+
+        Cells(CharSequence text, int capacity) {
+            this.text = text;
+            offsets = new int[Math.max(16, capacity) << 1];
+        }
+
+        void add(int start, int end) {
+            while (start < end && text.charAt(start) <= ' ') start++;
+            while (end > start && text.charAt(end - 1) <= ' ') end--;
+
+            if (size << 1 == offsets.length) {
+                offsets = Arrays.copyOf(offsets, offsets.length + (offsets.length >> 1));
+            }
+            offsets[size << 1] = start;
+            offsets[(size << 1) + 1] = end;
+            size++;
+        }
+
+        void endRow() {
+            if (rowCount == rowEnds.length) {
+                rowEnds = Arrays.copyOf(rowEnds, rowCount + (rowCount >> 1));
+            }
+            rowEnds[rowCount++] = size;
+        }
+
+        void clear() {
+            size = 0;
+            rowCount = 0;
+        }
+
+        int getRowStart(int row) {
+            return row == 0 ? 0 : rowEnds[row - 1];
+        }
+
+        int getStart(int index) {
+            return offsets[index << 1];
+        }
+
+        int getEnd(int index) {
+            return offsets[(index << 1) + 1];
+        }
+
+        String toString(int index) {
+            return text.subSequence(getStart(index), getEnd(index)).toString();
+        }
+    }
+}
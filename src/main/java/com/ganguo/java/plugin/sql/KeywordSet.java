@@ -0,0 +1,80 @@
+package com.ganguo.java.plugin.sql;
+
+import com.ganguo.java.plugin.util.CharacterUtils;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * 不可变的关键字集合，忽略大小写，直接判断文本中的一段是否为关键字，查找时不创建字符串。
+ * 使用开放寻址的哈希表，关键字只能由ASCII字符组成
+ */
+public class KeywordSet {
+
+    /** 小写的关键字，空位为null */
+    private final String[] table;
+    private final int mask;
+    private final int size;
+
+    public KeywordSet(Collection<String> keywords) {
+        Set<String> words = new LinkedHashSet<>();
+        for (String keyword : keywords) {
+            words.add(keyword.toLowerCase());
+        }
+
+        // 装载因子不超过0.5，查找时探测次数少
+        int capacity = Integer.highestOneBit(Math.max(words.size(), 8) * 2 - 1) << 1;
+        table = new String[capacity];
+        mask = capacity - 1;
+        size = words.size();
+
+        for (String word : words) {
+            int index = hash(word, 0, word.length()) & mask;
+            while (table[index] != null) {
+                index = (index + 1) & mask;
+            }
+            table[index] = word;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean contains(CharSequence word) {
+        return contains(word, 0, word.length());
+    }
+
+    /**
+     * 文本的指定范围是否为关键字，忽略大小写
+     *
+     * @param text  文本
+     * @param start 开始位置
+     * @param end   结束位置，不包括
+     */
+    public boolean contains(CharSequence text, int start, int end) {
+        int index = hash(text, start, end) & mask;
+        String word;
+        while ((word = table[index]) != null) {
+            if (SqlLexer.regionMatches(text, start, end, word)) return true;
+            index = (index + 1) & mask;
+        }
+        return false;
+    }
+
+    /**
+     * 忽略ASCII大小写的哈希值
+     */
+    private static int hash(CharSequence text, int start, int end) {
+        int h = 0;
+        for (int i = start; i < end; i++) {
+            char ch = text.charAt(i);
+            if (CharacterUtils.isUpperCase(ch)) {
+                ch = (char) (ch + ('a' - 'A'));
+            }
+            h = 31 * h + ch;
+        }
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,70 @@
+package com.ganguo.java.plugin.sql;
+
+import com.ganguo.java.plugin.util.MyStringUtils;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 把多行按列对齐，各列之间用一个空格分隔，行尾不留空白
+ */
+class SqlAligner {
+
+    /**
+     * 对齐多行
+     *
+     * @param rows 每行的各部分，空字符串表示该行没有这部分，只有一部分的行原样输出，不参与对齐
+     * @return 对齐后的各行
+     */
+    static List<String> align(List<String[]> rows) {
+        int columnCount = 0;
+        for (String[] row : rows) {
+            if (row.length > 1) {
+                columnCount = Math.max(columnCount, row.length);
+            }
+        }
+
+        // 每个部分的宽度只计算一次，求列宽和补空格时共用
+        int[][] cellWidths = new int[rows.size()][];
+        int[] widths = new int[columnCount];
+        for (int r = 0; r < rows.size(); r++) {
+            String[] row = rows.get(r);
+            if (row.length == 1) continue;
+            cellWidths[r] = new int[row.length];
+            for (int i = 0; i < row.length; i++) {
+                cellWidths[r][i] = MyStringUtils.width(row[i]);
+                widths[i] = Math.max(widths[i], cellWidths[r][i]);
+            }
+        }
+
+        List<String> lines = new ArrayList<>(rows.size());
+        for (int r = 0; r < rows.size(); r++) {
+            String[] row = rows.get(r);
+            if (row.length == 1) {
+                lines.add(row[0]);
+                continue;
+            }
+
+            int last = row.length - 1;
+            while (last > 0 && row[last].isEmpty()) {
+                last--;
+            }
+
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i <= last; i++) {
+                // 所有行都没有的部分不占位置
+                if (widths[i] == 0) continue;
+                if (sb.length() > 0) {
+                    sb.append(' ');
+                }
+                sb.append(row[i]);
+                if (i < last) {
+                    sb.append(StringUtils.repeat(' ', widths[i] - cellWidths[r][i]));
+                }
+            }
+            lines.add(sb.toString());
+        }
+        return lines;
+    }
+}
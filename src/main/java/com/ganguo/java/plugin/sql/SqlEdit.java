@@ -0,0 +1,18 @@
+package com.ganguo.java.plugin.sql;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 对文本的一处替换
+ */
+@AllArgsConstructor
+@Getter
+public class SqlEdit {
+    /** 开始位置 */
+    private final int start;
+    /** 结束位置，不包括 */
+    private final int end;
+    /** 替换后的文本 */
+    private final String replacement;
+}
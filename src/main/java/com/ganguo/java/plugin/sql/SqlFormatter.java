@@ -0,0 +1,176 @@
+package com.ganguo.java.plugin.sql;
+
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.util.DocumentUtil;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+/**
+ * 格式化SQL脚本，一次分词后按分号分出所有语句，依次交给各个语句格式化器，语句之间并行格式化
+ */
+public class SqlFormatter {
+
+    /** 替换数量超过该值时使用批量模式修改文档 */
+    private static final int BULK_EDIT_COUNT = 100;
+
+    /** 语句数量达到该值时并行格式化 */
+    private static final int PARALLEL_STATEMENT_COUNT = 16;
+
+    /** 语句格式化器，按顺序尝试，第一个返回结果的生效 */
+    private static final List<StatementFormatter> FORMATTERS = Arrays.asList(
+            new InsertFormatter(),
+            new CreateTableFormatter(),
+            new AlterTableFormatter(),
+            new UpdateFormatter());
+
+    /**
+     * 格式化SQL文本
+     *
+     * @param text SQL文本
+     * @return 格式化后的文本
+     */
+    public static String format(CharSequence text) {
+        StringBuilder result = new StringBuilder(text.length() + (text.length() >> 2));
+        int from = 0;
+        for (SqlEdit edit : formatEdits(text, 0, text.length(), null)) {
+            result.append(text, from, edit.getStart()).append(edit.getReplacement());
+            from = edit.getEnd();
+        }
+        result.append(text, from, text.length());
+        return result.toString();
+    }
+
+    /**
+     * 格式化SQL文本的指定范围，只返回有变化的部分
+     *
+     * @param text      SQL文本，格式化过程中不能被修改，会在多个线程中读取
+     * @param start     开始位置
+     * @param end       结束位置，不包括
+     * @param indicator 进度，用于显示进度和取消，可为null
+     * @return 按位置排列的替换，每处替换都去掉了和原文相同的首尾部分
+     */
+    public static List<SqlEdit> formatEdits(CharSequence text, int start, int end,
+                                            @Nullable ProgressIndicator indicator) {
+        return formatEdits(text, start, end, indicator, FORMATTERS);
+    }
+
+    /**
+     * 只用指定的语句格式化器格式化SQL文本的指定范围
+     *
+     * @param formatters 语句格式化器，按顺序尝试
+     * @see #formatEdits(CharSequence, int, int, ProgressIndicator)
+     */
+    public static List<SqlEdit> formatEdits(CharSequence text, int start, int end,
+                                            @Nullable ProgressIndicator indicator,
+                                            List<StatementFormatter> formatters) {
+        List<SqlStatement> statements = splitStatements(new SqlTokens(text, start, end));
+
+        // 各语句互不影响，语句多时在ForkJoin公共线程池中并行格式化，结果按下标保存以保持顺序
+        SqlEdit[] results = new SqlEdit[statements.size()];
+        AtomicLong formattedLength = new AtomicLong();
+        IntStream indexes = IntStream.range(0, statements.size());
+        if (statements.size() >= PARALLEL_STATEMENT_COUNT) {
+            indexes = indexes.parallel();
+        }
+        indexes.forEach(i -> {
+            if (indicator != null) {
+                indicator.checkCanceled();
+            }
+
+            SqlStatement statement = statements.get(i);
+            String formatted = format(statement, formatters);
+            if (formatted != null) {
+                results[i] = createEdit(text, statement.getStart(), statement.getEnd(), formatted);
+            }
+
+            if (indicator != null) {
+                long length = formattedLength.addAndGet(statement.getEnd() - statement.getStart());
+                indicator.setFraction((double) length / (end - start));
+            }
+        });
+
+        List<SqlEdit> edits = new ArrayList<>();
+        for (SqlEdit edit : results) {
+            if (edit != null) {
+                edits.add(edit);
+            }
+        }
+        return edits;
+    }
+
+    /**
+     * 把替换写到文档中，需要在写操作中调用
+     *
+     * @param document 文档
+     * @param edits    {@link #formatEdits}的结果
+     */
+    public static void applyEdits(Document document, List<SqlEdit> edits) {
+        // 从后往前替换，前面的位置不受影响
+        DocumentUtil.executeInBulk(document, edits.size() > BULK_EDIT_COUNT, () -> {
+            for (int i = edits.size() - 1; i >= 0; i--) {
+                SqlEdit edit = edits.get(i);
+                document.replaceString(edit.getStart(), edit.getEnd(), edit.getReplacement());
+            }
+        });
+    }
+
+    /**
+     * 按分号分出所有语句，语句从分号后第一个不是空白或注释的记号开始，没有分号结尾的语句不处理
+     */
+    private static List<SqlStatement> splitStatements(SqlTokens tokens) {
+        List<SqlStatement> statements = new ArrayList<>();
+        int statementFrom = -1;
+        for (int i = 0; i < tokens.size(); i++) {
+            if (statementFrom == -1) {
+                if (tokens.isWhiteSpace(i) || tokens.isComment(i)) continue;
+                statementFrom = i;
+            }
+            if (tokens.isSymbol(i, ';')) {
+                statements.add(new SqlStatement(tokens, statementFrom, i + 1));
+                statementFrom = -1;
+            }
+        }
+        return statements;
+    }
+
+    @Nullable
+    private static String format(SqlStatement statement, List<StatementFormatter> formatters) {
+        for (StatementFormatter formatter : formatters) {
+            String formatted = formatter.format(statement);
+            if (formatted != null) return formatted;
+        }
+        return null;
+    }
+
+    /**
+     * 去掉相同的首尾部分后创建替换
+     *
+     * @return 完全相同时返回null
+     */
+    @Nullable
+    private static SqlEdit createEdit(CharSequence text, int start, int end, String replacement) {
+        int prefix = 0;
+        int maxPrefix = Math.min(end - start, replacement.length());
+        while (prefix < maxPrefix && text.charAt(start + prefix) == replacement.charAt(prefix)) {
+            prefix++;
+        }
+
+        int suffix = 0;
+        int maxSuffix = maxPrefix - prefix;
+        while (suffix < maxSuffix &&
+                text.charAt(end - 1 - suffix) == replacement.charAt(replacement.length() - 1 - suffix)) {
+            suffix++;
+        }
+
+        if (prefix == end - start && prefix == replacement.length()) return null;
+
+        return new SqlEdit(start + prefix, end - suffix,
+                replacement.substring(prefix, replacement.length() - suffix));
+    }
+}
@@ -0,0 +1,206 @@
+package com.ganguo.java.plugin.sql;
+
+import com.ganguo.java.plugin.util.CharacterUtils;
+
+/**
+ * SQL词法分析器，一次遍历文本，只区分格式化需要的几类记号。
+ * 记号只记录在文本中的位置，分析过程中不创建字符串
+ */
+public class SqlLexer {
+
+    public enum TokenType {
+        /** 关键字、标识符、数字 */
+        WORD,
+        /** 单引号或双引号包裹的字符串 */
+        STRING,
+        /** 反引号包裹的标识符 */
+        QUOTED_IDENTIFIER,
+        /** -- 或 # 开头的单行注释，不包括换行符 */
+        LINE_COMMENT,
+        /** 块注释 */
+        BLOCK_COMMENT,
+        /** 空白字符 */
+        WHITE_SPACE,
+        /** 其他的单个字符，如 ( ) , ; */
+        SYMBOL
+    }
+
+    private final CharSequence text;
+    private final int end;
+
+    private int position;
+    private int tokenStart;
+    private int tokenEnd;
+    private TokenType tokenType;
+
+    public SqlLexer(CharSequence text) {
+        this(text, 0, text.length());
+    }
+
+    /**
+     * @param text  文本
+     * @param start 开始位置
+     * @param end   结束位置，不包括
+     */
+    public SqlLexer(CharSequence text, int start, int end) {
+        this.text = text;
+        this.end = end;
+        this.position = start;
+        this.tokenStart = start;
+        this.tokenEnd = start;
+    }
+
+    /**
+     * 读取下一个记号
+     *
+     * @return 记号类型，没有更多记号时返回null
+     */
+    public TokenType next() {
+        tokenStart = position;
+        if (position >= end) {
+            tokenEnd = position;
+            tokenType = null;
+            return null;
+        }
+
+        char ch = text.charAt(position);
+        if (ch == '\'' || ch == '"') {
+            position = skipQuoted(position + 1, ch, true);
+            tokenType = TokenType.STRING;
+        } else if (ch == '`') {
+            position = skipQuoted(position + 1, ch, false);
+            tokenType = TokenType.QUOTED_IDENTIFIER;
+        } else if (ch == '#' || (ch == '-' && isLineCommentStart(position))) {
+            position = skipLine(position + 1);
+            tokenType = TokenType.LINE_COMMENT;
+        } else if (ch == '/' && position + 1 < end && text.charAt(position + 1) == '*') {
+            position = skipBlockComment(position + 2);
+            tokenType = TokenType.BLOCK_COMMENT;
+        } else if (isWhiteSpace(ch)) {
+            do {
+                position++;
+            } while (position < end && isWhiteSpace(text.charAt(position)));
+            tokenType = TokenType.WHITE_SPACE;
+        } else if (isWordChar(ch)) {
+            do {
+                position++;
+            } while (position < end && isWordChar(text.charAt(position)));
+            tokenType = TokenType.WORD;
+        } else {
+            position++;
+            tokenType = TokenType.SYMBOL;
+        }
+        tokenEnd = position;
+        return tokenType;
+    }
+
+    public TokenType getTokenType() {
+        return tokenType;
+    }
+
+    public int getTokenStart() {
+        return tokenStart;
+    }
+
+    public int getTokenEnd() {
+        return tokenEnd;
+    }
+
+    /**
+     * 当前记号是否为指定的符号
+     */
+    public boolean isSymbol(char symbol) {
+        return tokenType == TokenType.SYMBOL && text.charAt(tokenStart) == symbol;
+    }
+
+    /**
+     * 当前记号是否为指定的单词，忽略大小写
+     *
+     * @param word 小写的单词
+     */
+    public boolean isWord(String word) {
+        return tokenType == TokenType.WORD && regionMatches(text, tokenStart, tokenEnd, word);
+    }
+
+    /**
+     * 是否为空白或注释
+     */
+    public boolean isWhiteSpaceOrComment() {
+        return tokenType == TokenType.WHITE_SPACE || tokenType == TokenType.LINE_COMMENT ||
+                tokenType == TokenType.BLOCK_COMMENT;
+    }
+
+    /**
+     * 判断文本的指定范围是否和小写的单词相同，忽略大小写
+     */
+    public static boolean regionMatches(CharSequence text, int start, int end, String lowerCaseWord) {
+        if (end - start != lowerCaseWord.length()) return false;
+
+        for (int i = start; i < end; i++) {
+            char ch = text.charAt(i);
+            if (CharacterUtils.isUpperCase(ch)) {
+                ch = (char) (ch + ('a' - 'A'));
+            }
+            if (ch != lowerCaseWord.charAt(i - start)) return false;
+        }
+        return true;
+    }
+
+    public static boolean isWordChar(char ch) {
+        return CharacterUtils.isLetterOrDigit(ch) || ch == '_' || ch == '$' ||
+                (ch >= 0x80 && Character.isLetterOrDigit(ch));
+    }
+
+    private static boolean isWhiteSpace(char ch) {
+        return ch == ' ' || ch == '\n' || ch == '\t' || ch == '\r' || ch == '\f';
+    }
+
+    /**
+     * MySQL中--后面必须是空白字符才是注释
+     */
+    private boolean isLineCommentStart(int index) {
+        if (index + 1 >= end || text.charAt(index + 1) != '-') return false;
+        return index + 2 >= end || isWhiteSpace(text.charAt(index + 2));
+    }
+
+    /**
+     * 跳过引号包裹的内容，未闭合时到文本末尾
+     *
+     * @return 结束引号的下一个位置
+     */
+    private int skipQuoted(int index, char quote, boolean backslashEscape) {
+        while (index < end) {
+            char ch = text.charAt(index++);
+            if (ch == quote) {
+                // 连续两个引号表示引号本身
+                if (index < end && text.charAt(index) == quote) {
+                    index++;
+                } else {
+                    return index;
+                }
+            } else if (ch == '\\' && backslashEscape) {
+                index++;
+            }
+        }
+        return end;
+    }
+
+    private int skipLine(int index) {
+        while (index < end) {
+            char ch = text.charAt(index);
+            if (ch == '\n' || ch == '\r') break;
+            index++;
+        }
+        return index;
+    }
+
+    private int skipBlockComment(int index) {
+        while (index + 1 < end) {
+            if (text.charAt(index) == '*' && text.charAt(index + 1) == '/') {
+                return index + 2;
+            }
+            index++;
+        }
+        return end;
+    }
+}
@@ -0,0 +1,220 @@
+package com.ganguo.java.plugin.sql;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 一条以分号结尾的语句，是{@link SqlTokens}中一段记号的视图，不复制记号。
+ * 下标都是相对于语句第一个记号的位置，第一个记号不是空白或注释，最后一个记号为分号
+ */
+public class SqlStatement {
+
+    private final SqlTokens tokens;
+    private final int from;
+    private final int to;
+
+    /**
+     * @param tokens 记号
+     * @param from   语句第一个记号的下标
+     * @param to     语句结束的下标，不包括
+     */
+    public SqlStatement(SqlTokens tokens, int from, int to) {
+        this.tokens = tokens;
+        this.from = from;
+        this.to = to;
+    }
+
+    public CharSequence getText() {
+        return tokens.getText();
+    }
+
+    /**
+     * 语句在文本中的开始位置
+     */
+    public int getStart() {
+        return tokens.getStart(from);
+    }
+
+    /**
+     * 语句在文本中的结束位置，不包括
+     */
+    public int getEnd() {
+        return tokens.getEnd(to - 1);
+    }
+
+    /**
+     * 记号数量
+     */
+    public int size() {
+        return to - from;
+    }
+
+    public SqlLexer.TokenType getType(int index) {
+        return tokens.getType(from + index);
+    }
+
+    public int getTokenStart(int index) {
+        return index < size() ? tokens.getStart(from + index) : getEnd();
+    }
+
+    public int getTokenEnd(int index) {
+        return tokens.getEnd(from + index);
+    }
+
+    public boolean isSymbol(int index, char symbol) {
+        return tokens.isSymbol(from + index, symbol);
+    }
+
+    public boolean isWord(int index, String lowerCaseWord) {
+        return tokens.isWord(from + index, lowerCaseWord);
+    }
+
+    public boolean isWhiteSpace(int index) {
+        return tokens.isWhiteSpace(from + index);
+    }
+
+    /**
+     * 记号是否为单词或反引号包裹的标识符
+     */
+    public boolean isIdentifier(int index) {
+        SqlLexer.TokenType type = getType(index);
+        return type == SqlLexer.TokenType.WORD || type == SqlLexer.TokenType.QUOTED_IDENTIFIER;
+    }
+
+    /**
+     * 语句中是否有注释
+     */
+    public boolean hasComment() {
+        for (int i = from; i < to; i++) {
+            if (tokens.isComment(i)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * 下一个非空白记号的下标，注释不跳过
+     *
+     * @return 没有时返回-1
+     */
+    public int nextNonWhiteSpace(int index) {
+        int i = skipWhiteSpace(index + 1, size());
+        return i < size() ? i : -1;
+    }
+
+    /**
+     * 从index开始跳过空白
+     *
+     * @return 第一个不是空白的记号的下标，没有时返回toIndex
+     */
+    public int skipWhiteSpace(int index, int toIndex) {
+        while (index < toIndex && isWhiteSpace(index)) {
+            index++;
+        }
+        return index;
+    }
+
+    /**
+     * 查找符号，不区分是否在括号中
+     *
+     * @return 没有时返回-1
+     */
+    public int indexOfSymbol(char symbol, int fromIndex, int toIndex) {
+        for (int i = fromIndex; i < toIndex; i++) {
+            if (isSymbol(i, symbol)) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * 在括号外查找单词
+     *
+     * @param lowerCaseWord 小写的单词
+     * @return 没有时返回-1
+     */
+    public int indexOfWord(String lowerCaseWord, int fromIndex, int toIndex) {
+        int depth = 0;
+        for (int i = fromIndex; i < toIndex; i++) {
+            if (isSymbol(i, '(')) {
+                depth++;
+            } else if (isSymbol(i, ')')) {
+                depth--;
+            } else if (depth == 0 && isWord(i, lowerCaseWord)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 查找和左括号对应的右括号
+     *
+     * @param openIndex 左括号的下标
+     * @return 右括号的下标，括号不闭合时返回-1
+     */
+    public int findClosing(int openIndex) {
+        int depth = 0;
+        for (int i = openIndex; i < size(); i++) {
+            if (isSymbol(i, '(')) {
+                depth++;
+            } else if (isSymbol(i, ')') && --depth == 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 按括号外的逗号分隔
+     *
+     * @return 每一部分的开始和结束下标，结束下标不包括，至少有一部分
+     */
+    public List<int[]> splitByComma(int fromIndex, int toIndex) {
+        List<int[]> ranges = new ArrayList<>();
+        int depth = 0;
+        int start = fromIndex;
+        for (int i = fromIndex; i < toIndex; i++) {
+            if (isSymbol(i, '(')) {
+                depth++;
+            } else if (isSymbol(i, ')')) {
+                depth--;
+            } else if (depth == 0 && isSymbol(i, ',')) {
+                ranges.add(new int[]{start, i});
+                start = i + 1;
+            }
+        }
+        ranges.add(new int[]{start, toIndex});
+        return ranges;
+    }
+
+    /**
+     * 记号范围内的原文，去掉首尾空白
+     */
+    public String getText(int fromIndex, int toIndex) {
+        CharSequence text = getText();
+        int start = getTokenStart(fromIndex);
+        int end = getTokenStart(toIndex);
+        while (start < end && text.charAt(start) <= ' ') start++;
+        while (end > start && text.charAt(end - 1) <= ' ') end--;
+        return text.subSequence(start, end).toString();
+    }
+
+    /**
+     * 记号范围内的文本，连续的空白替换为一个空格，去掉首尾空白
+     */
+    public String getNormalizedText(int fromIndex, int toIndex) {
+        fromIndex = skipWhiteSpace(fromIndex, toIndex);
+        while (toIndex > fromIndex && isWhiteSpace(toIndex - 1)) {
+            toIndex--;
+        }
+
+        StringBuilder sb = new StringBuilder();
+        for (int i = fromIndex; i < toIndex; i++) {
+            if (isWhiteSpace(i)) {
+                sb.append(' ');
+            } else {
+                sb.append(getText(), getTokenStart(i), getTokenEnd(i));
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,95 @@
+package com.ganguo.java.plugin.sql;
+
+import java.util.Arrays;
+
+/**
+ * 一次遍历文本得到的所有记号，所有格式化器共用。
+ * 记号首尾相接，只保存开始位置和类型，结束位置为下一个记号的开始位置
+ */
+public class SqlTokens {
+
+    private static final SqlLexer.TokenType[] TYPES = SqlLexer.TokenType.values();
+
+    private final CharSequence text;
+    private final int end;
+
+    private int size;
+    private int[] starts;
+    private byte[] types;
+
+    /**
+     * @param text  文本
+     * @param start 开始位置
+     * @param end   结束位置，不包括
+     */
+    public SqlTokens(CharSequence text, int start, int end) {
+        this.text = text;
+        this.end = end;
+
+        int capacity = Math.max(16, (end - start) >> 2);
+        starts = new int[capacity];
+        types = new byte[capacity];
+
+        SqlLexer lexer = new SqlLexer(text, start, end);
+        SqlLexer.TokenType type;
+        while ((type = lexer.next()) != null) {
+            if (size == starts.length) {
+                int newCapacity = size + (size >> 1);
+                starts = Arrays.copyOf(starts, newCapacity);
+                types = Arrays.copyOf(types, newCapacity);
+            }
+            starts[size] = lexer.getTokenStart();
+            types[size] = (byte) type.ordinal();
+            size++;
+        }
+    }
+
+    public CharSequence getText() {
+        return text;
+    }
+
+    /**
+     * 记号数量
+     */
+    public int size() {
+        return size;
+    }
+
+    public SqlLexer.TokenType getType(int index) {
+        return TYPES[types[index]];
+    }
+
+    public int getStart(int index) {
+        return starts[index];
+    }
+
+    public int getEnd(int index) {
+        return index + 1 < size ? starts[index + 1] : end;
+    }
+
+    /**
+     * 记号是否为指定的符号
+     */
+    public boolean isSymbol(int index, char symbol) {
+        return getType(index) == SqlLexer.TokenType.SYMBOL && text.charAt(starts[index]) == symbol;
+    }
+
+    /**
+     * 记号是否为指定的单词，忽略大小写
+     *
+     * @param lowerCaseWord 小写的单词
+     */
+    public boolean isWord(int index, String lowerCaseWord) {
+        return getType(index) == SqlLexer.TokenType.WORD &&
+                SqlLexer.regionMatches(text, starts[index], getEnd(index), lowerCaseWord);
+    }
+
+    public boolean isWhiteSpace(int index) {
+        return getType(index) == SqlLexer.TokenType.WHITE_SPACE;
+    }
+
+    public boolean isComment(int index) {
+        SqlLexer.TokenType type = getType(index);
+        return type == SqlLexer.TokenType.LINE_COMMENT || type == SqlLexer.TokenType.BLOCK_COMMENT;
+    }
+}
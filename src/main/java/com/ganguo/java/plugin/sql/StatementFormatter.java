@@ -0,0 +1,19 @@
+package com.ganguo.java.plugin.sql;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * 单条语句的格式化器，新增支持的语句时实现该接口并添加到{@link SqlFormatter}中。
+ * 所有格式化器共用同一次分词的结果，实现类不能保存状态
+ */
+public interface StatementFormatter {
+
+    /**
+     * 格式化语句
+     *
+     * @param statement 语句
+     * @return 格式化后的语句，不是支持的语句或无法格式化时返回null
+     */
+    @Nullable
+    String format(SqlStatement statement);
+}
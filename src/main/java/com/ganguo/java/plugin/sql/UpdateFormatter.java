@@ -0,0 +1,67 @@
+package com.ganguo.java.plugin.sql;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 格式化修改多个字段的UPDATE语句，每个字段一行，对齐等号
+ * <pre>
+ * UPDATE `user`
+ * SET `name`  = '小明',
+ *     `phone` = '13414850000'
+ * WHERE `id` = 1;
+ * </pre>
+ */
+public class UpdateFormatter implements StatementFormatter {
+
+    private static final String INDENT = "    ";
+
+    /** SET之后可能出现的子句 */
+    private static final String[] CLAUSE_KEYWORDS = {"where", "order", "limit"};
+
+    @Override
+    public String format(SqlStatement statement) {
+        if (!statement.isWord(0, "update") || statement.hasComment()) return null;
+
+        int end = statement.size() - 1;
+        int setIndex = statement.indexOfWord("set", 0, end);
+        if (setIndex == -1) return null;
+
+        int clauseIndex = end;
+        for (String keyword : CLAUSE_KEYWORDS) {
+            int index = statement.indexOfWord(keyword, setIndex, clauseIndex);
+            if (index != -1) {
+                clauseIndex = index;
+            }
+        }
+
+        // 只修改一个字段时保持一行
+        List<int[]> ranges = statement.splitByComma(setIndex + 1, clauseIndex);
+        if (ranges.size() < 2) return null;
+
+        List<String[]> rows = new ArrayList<>();
+        for (int[] range : ranges) {
+            int equalIndex = statement.indexOfSymbol('=', range[0], range[1]);
+            if (equalIndex == -1) return null;
+            rows.add(new String[]{
+                    statement.getNormalizedText(range[0], equalIndex),
+                    "= " + statement.getText(equalIndex + 1, range[1])
+            });
+        }
+        List<String> lines = SqlAligner.align(rows);
+
+        StringBuilder sb = new StringBuilder(statement.getText(0, setIndex))
+                .append('\n').append(statement.getText(setIndex, setIndex + 1)).append(' ');
+        for (int i = 0; i < lines.size(); i++) {
+            if (i > 0) {
+                sb.append(",\n").append(INDENT);
+            }
+            sb.append(lines.get(i));
+        }
+        String clause = statement.getText(clauseIndex, end);
+        if (!clause.isEmpty()) {
+            sb.append('\n').append(clause);
+        }
+        return sb.append(';').toString();
+    }
+}
@@ -0,0 +1,222 @@
+package com.ganguo.java.plugin.translate;
+
+import com.ganguo.java.plugin.util.HttpClientUtils;
+import com.ganguo.java.plugin.util.RateLimiter;
+import com.ganguo.java.plugin.util.TranslateCache;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.http.HttpStatus;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.regex.Pattern;
+
+/**
+ * 百度翻译，翻译结果会被缓存，相同的文本不再请求
+ */
+@Slf4j
+public class BaiduTranslator implements Translator {
+    private static final String URL = "http://api.fanyi.baidu.com/api/trans/vip/translate";
+    private static final int MAX_TEXT_BYTES_LENGTH = 6000;
+
+    /** 每秒最多的请求数，标准版为1，高级版可通过VM参数修改 */
+    private static final RateLimiter RATE_LIMITER = new RateLimiter(Integer.getInteger("ganguo.translate.qps", 1));
+
+    /** 批量翻译时短语中的换行会被当作分隔符，替换为空格 */
+    private static final Pattern PATTERN_LINE_BREAK = Pattern.compile("[\\r\\n]+");
+
+    private final String appId;
+    private final String secret;
+
+    public BaiduTranslator(String appId, String secret) {
+        this.appId = appId;
+        this.secret = secret;
+        if (StringUtils.isEmpty(appId) || StringUtils.isEmpty(secret)) {
+            throw new RuntimeException("百度翻译应用ID和密钥不能为空");
+        }
+    }
+
+    /**
+     * 相同的短语只翻译一次，没有缓存的短语用换行连接，
+     * 分成不超过6000字节的几段同时用POST请求，发送频率受限制，结果按行和短语一一对应。
+     * 短语中的换行会被替换为空格，失败的段中的短语结果为null，所有段都失败时整体失败
+     */
+    @Override
+    public CompletableFuture<List<String>> translateAllAsync(List<String> texts, String from, String to)
+            throws Exception {
+        TranslateCache cache = TranslateCache.getInstance();
+        String[] results = new String[texts.size()];
+        // 待翻译的短语和它们在texts中的下标
+        Map<String, List<Integer>> phrases = new LinkedHashMap<>();
+        for (int i = 0; i < texts.size(); i++) {
+            String text = texts.get(i);
+            String phrase = StringUtils.isEmpty(text) ? text : PATTERN_LINE_BREAK.matcher(text).replaceAll(" ").trim();
+            if (StringUtils.isEmpty(phrase)) {
+                results[i] = text;
+                continue;
+            }
+            String cached = cache.get(from, to, phrase);
+            if (cached != null) {
+                results[i] = cached;
+                continue;
+            }
+            phrases.computeIfAbsent(phrase, key -> new ArrayList<>()).add(i);
+        }
+
+        List<CompletableFuture<Void>> requests = new ArrayList<>();
+        for (List<String> chunk : pack(phrases.keySet())) {
+            requests.add(requestAsync(String.join("\n", chunk), from, to, dsts -> {
+                if (dsts.size() != chunk.size()) {
+                    throw new IllegalStateException("翻译结果数量不一致 expected: " + chunk.size() +
+                            " actual: " + dsts.size());
+                }
+                for (int i = 0; i < chunk.size(); i++) {
+                    String dst = dsts.get(i);
+                    cache.put(from, to, chunk.get(i), dst);
+                    for (int index : phrases.get(chunk.get(i))) {
+                        results[index] = dst;
+                    }
+                }
+                return null;
+            }));
+        }
+
+        // 每段的异常，成功时为null
+        List<CompletableFuture<Throwable>> errors = new ArrayList<>(requests.size());
+        for (CompletableFuture<Void> request : requests) {
+            errors.add(request.handle((v, e) -> e));
+        }
+        CompletableFuture<List<String>> result = CompletableFuture
+                .allOf(errors.toArray(new CompletableFuture[0]))
+                .thenApply(v -> {
+                    Throwable error = null;
+                    boolean succeeded = false;
+                    for (CompletableFuture<Throwable> future : errors) {
+                        Throwable e = future.join();
+                        if (e == null) {
+                            succeeded = true;
+                        } else {
+                            log.warn("baidu translate fail", e);
+                            error = error != null ? error : e;
+                        }
+                    }
+                    if (error != null && !succeeded) {
+                        throw error instanceof CompletionException ? (CompletionException) error
+                                : new CompletionException(error);
+                    }
+                    return Arrays.asList(results);
+                });
+        // 取消时取消还没完成的请求
+        result.whenComplete((list, e) -> {
+            if (result.isCancelled()) {
+                requests.forEach(request -> request.cancel(true));
+            }
+        });
+        return result;
+    }
+
+    /**
+     * 把短语按顺序装进用换行连接后不超过6000字节的几段中
+     */
+    static List<List<String>> pack(Collection<String> phrases) {
+        List<List<String>> chunks = new ArrayList<>();
+        List<String> chunk = new ArrayList<>();
+        int bytes = 0;
+        for (String phrase : phrases) {
+            int length = phrase.getBytes(StandardCharsets.UTF_8).length;
+            if (length > MAX_TEXT_BYTES_LENGTH) {
+                throw new IllegalArgumentException("文本不能超过6000个字节");
+            }
+            if (!chunk.isEmpty() && bytes + 1 + length > MAX_TEXT_BYTES_LENGTH) {
+                chunks.add(chunk);
+                chunk = new ArrayList<>();
+            }
+            bytes = chunk.isEmpty() ? length : bytes + 1 + length;
+            chunk.add(phrase);
+        }
+        if (!chunk.isEmpty()) {
+            chunks.add(chunk);
+        }
+        return chunks;
+    }
+
+    /**
+     * 异步请求翻译，取消结果时同时取消请求
+     *
+     * @param mapper 处理每行的翻译结果
+     */
+    private <T> CompletableFuture<T> requestAsync(String text, String from, String to,
+                                                  ResultMapper<T> mapper) throws Exception {
+        CompletableFuture<HttpClientUtils.HttpClientResult> request =
+                HttpClientUtils.doPostAsync(URL, createParams(text, from, to), RATE_LIMITER);
+        CompletableFuture<T> result = request.thenApply(response -> {
+            try {
+                return mapper.map(getResults(response));
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        });
+        result.whenComplete((value, e) -> {
+            if (result.isCancelled()) {
+                request.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    private Map<String, String> createParams(String text, String from, String to) {
+        if (text.getBytes(StandardCharsets.UTF_8).length > MAX_TEXT_BYTES_LENGTH) {
+            throw new IllegalArgumentException("文本不能超过6000个字节");
+        }
+        String salt = getSalt();
+        Map<String, String> params = new HashMap<>();
+        params.put("q", text);
+        params.put("from", Objects.requireNonNull(from));
+        params.put("to", Objects.requireNonNull(to));
+        params.put("appid", appId);
+        params.put("salt", salt);
+        params.put("sign", getSign(text, salt));
+        return params;
+    }
+
+    /**
+     * 每行原文对应的译文
+     */
+    private static List<String> getResults(HttpClientUtils.HttpClientResult response) throws Exception {
+        if (response.getCode() == HttpStatus.SC_OK) {
+            JSONArray array = new JSONObject(response.getContent()).optJSONArray("trans_result");
+            if (array != null) {
+                List<String> results = new ArrayList<>(array.length());
+                for (int i = 0; i < array.length(); i++) {
+                    results.add(array.getJSONObject(i).getString("dst"));
+                }
+                return results;
+            }
+        }
+        throw new Exception("翻译失败 response: " + response);
+    }
+
+    private String getSign(String text, String salt) {
+        return DigestUtils.md5Hex(appId + text + salt + secret);
+    }
+
+    private String getSalt() {
+        return String.valueOf(System.currentTimeMillis());
+    }
+
+    private interface ResultMapper<T> {
+        T map(List<String> results) throws Exception;
+    }
+}
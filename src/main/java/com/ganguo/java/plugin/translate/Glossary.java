@@ -0,0 +1,143 @@
+package com.ganguo.java.plugin.translate;
+
+import org.apache.commons.lang3.StringUtils;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * 术语表，术语按字符保存在字典树中，每个节点的子节点按字符排序后二分查找，匹配术语时不创建对象。
+ * 短语本身是术语时直接使用译文，否则按最长匹配切分，全部由术语组成时用空格连接各术语的译文
+ * <pre>
+ * # 注释
+ * 启用=enable
+ * 状态=status
+ * </pre>
+ */
+public class Glossary {
+
+    public static final Glossary EMPTY = new Glossary();
+
+    private final Node root = new Node();
+    private int size;
+
+    private Glossary() {
+    }
+
+    /**
+     * 解析术语文件，每行一个“原文=译文”，#开头的行为注释，格式不对的行忽略
+     */
+    public static Glossary parse(CharSequence text) {
+        Glossary glossary = new Glossary();
+        for (String line : StringUtils.split(text.toString(), "\r\n")) {
+            line = line.trim();
+            int index = line.indexOf('=');
+            if (line.startsWith("#") || index == -1) continue;
+
+            String term = line.substring(0, index).trim();
+            String translation = line.substring(index + 1).trim();
+            if (!term.isEmpty() && !translation.isEmpty()) {
+                glossary.put(term, translation);
+            }
+        }
+        return glossary;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 翻译短语
+     *
+     * @return 译文，短语中有不是术语的部分时返回null
+     */
+    @Nullable
+    public String translate(CharSequence text) {
+        if (size == 0) return null;
+
+        // 第一个术语匹配后才创建，不是术语的短语不分配内存
+        StringBuilder sb = null;
+        int i = 0;
+        while (i < text.length()) {
+            if (Character.isWhitespace(text.charAt(i))) {
+                i++;
+                continue;
+            }
+
+            // 从i开始最长的术语
+            String translation = null;
+            int end = -1;
+            Node node = root;
+            for (int j = i; j < text.length(); j++) {
+                node = node.child(text.charAt(j));
+                if (node == null) break;
+                if (node.translation != null) {
+                    translation = node.translation;
+                    end = j + 1;
+                }
+            }
+            if (translation == null) return null;
+
+            if (sb == null) {
+                sb = new StringBuilder(translation.length() + 16);
+            } else {
+                sb.append(' ');
+            }
+            sb.append(translation);
+            i = end;
+        }
+        return sb != null ? sb.toString() : null;
+    }
+
+    private void put(String term, String translation) {
+        Node node = root;
+        for (int i = 0; i < term.length(); i++) {
+            node = node.addChild(term.charAt(i));
+        }
+        if (node.translation == null) {
+            size++;
+        }
+        // 重复的术语以后面的为准
+        node.translation = translation;
+    }
+
+    private static class Node {
+        private static final char[] NO_CHARS = new char[0];
+        private static final Node[] NO_NODES = new Node[0];
+
+        /** 子节点的字符，从小到大排列 */
+        private char[] chars = NO_CHARS;
+        /** 和chars一一对应的子节点 */
+        private Node[] children = NO_NODES;
+        private String translation;
+
+        @Nullable
+        Node child(char ch) {
+            int index = Arrays.binarySearch(chars, ch);
+            return index >= 0 ? children[index] : null;
+        }
+
+        /**
+         * 获取子节点，没有时按顺序插入新的子节点，只在解析时调用
+         */
+        Node addChild(char ch) {
+            int index = Arrays.binarySearch(chars, ch);
+            if (index >= 0) return children[index];
+
+            index = -index - 1;
+            int length = chars.length;
+            char[] newChars = new char[length + 1];
+            Node[] newChildren = new Node[length + 1];
+            System.arraycopy(chars, 0, newChars, 0, index);
+            System.arraycopy(children, 0, newChildren, 0, index);
+            System.arraycopy(chars, index, newChars, index + 1, length - index);
+            System.arraycopy(children, index, newChildren, index + 1, length - index);
+            newChars[index] = ch;
+            newChildren[index] = new Node();
+            chars = newChars;
+            children = newChildren;
+            return newChildren[index];
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.ganguo.java.plugin.translate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 使用项目术语表翻译中文，不需要网络，只支持中文转英文
+ */
+public class GlossaryTranslator implements Translator {
+
+    private final Glossary glossary;
+
+    public GlossaryTranslator(Glossary glossary) {
+        this.glossary = glossary;
+    }
+
+    @Override
+    public CompletableFuture<List<String>> translateAllAsync(List<String> texts, String from, String to) {
+        List<String> results = new ArrayList<>(texts.size());
+        boolean supported = ("zh".equals(from) || "auto".equals(from)) && "en".equals(to);
+        for (String text : texts) {
+            results.add(supported ? glossary.translate(text) : null);
+        }
+        return CompletableFuture.completedFuture(results);
+    }
+}
@@ -0,0 +1,22 @@
+package com.ganguo.java.plugin.translate;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 翻译器，新增翻译来源时实现该接口并添加到{@link com.ganguo.java.plugin.util.TranslateHelper}中。
+ * 多个翻译器按顺序使用，前一个无法翻译的短语交给下一个
+ */
+public interface Translator {
+
+    /**
+     * 异步批量翻译
+     * 语言列表参考http://api.fanyi.baidu.com/api/trans/product/apidoc
+     *
+     * @param texts 待翻译的短语，不为空
+     * @param from  源语言，auto为自动检测
+     * @param to    目标语言
+     * @return 和texts一一对应的结果，无法翻译的短语为null，取消时中止请求
+     */
+    CompletableFuture<List<String>> translateAllAsync(List<String> texts, String from, String to) throws Exception;
+}
@@ -0,0 +1,156 @@
+package com.ganguo.java.plugin.ui.dialog;
+
+import com.ganguo.java.plugin.ui.form.BatchAddMsgForm;
+import com.ganguo.java.plugin.util.MsgUtils;
+import com.ganguo.java.plugin.util.PropertiesValueIndex;
+import com.ganguo.java.plugin.util.SafeProperties;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.ui.Messages;
+import org.jetbrains.annotations.Nullable;
+
+import javax.swing.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+public class BatchAddMsgDialog extends BaseDialog<BatchAddMsgForm, BatchAddMsgDialog.Action> {
+
+    private static final Pattern KEY_PATTERN = Pattern.compile("^\\w+$");
+
+    /** 最多显示的错误行数 */
+    private static final int MAX_ERROR_COUNT = 10;
+
+    private AnActionEvent mEvent;
+
+    public BatchAddMsgDialog(AnActionEvent e, Action action) {
+        super("Batch Add Msg", new BatchAddMsgForm(), action);
+        mEvent = e;
+    }
+
+    @Nullable
+    @Override
+    public JComponent getPreferredFocusedComponent() {
+        return mForm.getContentArea();
+    }
+
+    @Override
+    protected void doOKAction() {
+        Map<String, String> msgMap = new LinkedHashMap<>();
+        Map<String, Integer> keyLines = new HashMap<>();
+        // 归一化的Msg -> 行号，和Msg索引一样忽略空白、大小写和全角/半角标点的差异
+        Map<String, Integer> valueLines = new HashMap<>();
+        List<String> errors = new ArrayList<>();
+        List<String> renamedKeys = new ArrayList<>();
+
+        String[] lines = mForm.getContentArea().getText().split("\\r?\\n|\\r");
+        for (int i = 0; i < lines.length; i++) {
+            int lineNumber = i + 1;
+            String line = lines[i].trim();
+            if (line.isEmpty() || line.startsWith("#") || line.startsWith("!")) continue;
+
+            int separatorIndex = indexOfSeparator(line);
+            if (separatorIndex == -1) {
+                errors.add(String.format("第%d行：缺少分隔符", lineNumber));
+                continue;
+            }
+
+            String inputKey = line.substring(0, separatorIndex).trim();
+            String key = inputKey.toUpperCase().replace(' ', '_');
+            String value;
+            try {
+                value = parseValue(line.charAt(separatorIndex), line.substring(separatorIndex + 1).trim());
+            } catch (IllegalArgumentException e) {
+                errors.add(String.format("第%d行：%s", lineNumber, e.getMessage()));
+                continue;
+            }
+            String normalizedValue = PropertiesValueIndex.normalize(value);
+
+            if (!KEY_PATTERN.matcher(key).matches()) {
+                errors.add(String.format("第%d行：Key不合法 %s", lineNumber, inputKey));
+            } else if (value.isEmpty()) {
+                errors.add(String.format("第%d行：Msg为空", lineNumber));
+            } else if (keyLines.containsKey(key)) {
+                errors.add(String.format("第%d行：Key与第%d行重复 %s", lineNumber, keyLines.get(key), key));
+            } else if (valueLines.containsKey(normalizedValue)) {
+                errors.add(String.format("第%d行：Msg与第%d行重复 %s", lineNumber, valueLines.get(normalizedValue), value));
+            } else {
+                keyLines.put(key, lineNumber);
+                valueLines.put(normalizedValue, lineNumber);
+                msgMap.put(key, value);
+                if (!key.equals(inputKey)) {
+                    renamedKeys.add(String.format("第%d行：%s -> %s", lineNumber, inputKey, key));
+                }
+            }
+        }
+
+        if (!errors.isEmpty()) {
+            StringBuilder message = new StringBuilder();
+            errors.stream().limit(MAX_ERROR_COUNT).forEach(error -> message.append(error).append('\n'));
+            if (errors.size() > MAX_ERROR_COUNT) {
+                message.append(String.format("...共%d个错误", errors.size()));
+            }
+            MsgUtils.error("%s", message.toString().trim());
+            return;
+        }
+
+        if (!renamedKeys.isEmpty() && !confirmRenamedKeys(renamedKeys)) return;
+
+        if (!msgMap.isEmpty() && mAction.apply(mEvent, msgMap)) {
+            super.doOKAction();
+        }
+    }
+
+    /**
+     * 预览转换为大写下划线格式的Key，确认后才添加
+     */
+    private static boolean confirmRenamedKeys(List<String> renamedKeys) {
+        StringBuilder message = new StringBuilder(String.format("以下%d个Key将转换为大写下划线格式：\n",
+                renamedKeys.size()));
+        renamedKeys.stream().limit(MAX_ERROR_COUNT).forEach(key -> message.append(key).append('\n'));
+        if (renamedKeys.size() > MAX_ERROR_COUNT) {
+            message.append("...\n");
+        }
+        message.append("是否继续添加？");
+        return Messages.showYesNoDialog(message.toString(), "提示", "继续添加", "取消", null) == Messages.YES;
+    }
+
+    /**
+     * 查找Key和Msg之间的分隔符，Tab优先，其次为properties的=和:，最后为CSV的,
+     */
+    private static int indexOfSeparator(String line) {
+        int index = line.indexOf('\t');
+        if (index != -1) return index;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '=' || c == ':' || c == ',') return i;
+        }
+        return -1;
+    }
+
+    private static String parseValue(char separator, String value) {
+        if (separator == '=' || separator == ':') {
+            return SafeProperties.unescape(value).trim();
+        }
+        // TSV/CSV中被引号包裹的值
+        if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+            return value.substring(1, value.length() - 1).replace("\"\"", "\"").trim();
+        }
+        return value;
+    }
+
+    public interface Action extends DialogAction {
+
+        /**
+         * 执行Ok动作
+         *
+         * @param event  event
+         * @param msgMap 按输入顺序排列的Key和Msg
+         * @return true关闭对话框，false不关闭对话框
+         */
+        boolean apply(AnActionEvent event, Map<String, String> msgMap);
+    }
+}
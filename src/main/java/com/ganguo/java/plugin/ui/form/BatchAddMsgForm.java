@@ -0,0 +1,18 @@
+package com.ganguo.java.plugin.ui.form;
+
+import com.ganguo.java.plugin.ui.BaseForm;
+
+import javax.swing.*;
+
+public class BatchAddMsgForm implements BaseForm {
+    private JPanel mainPanel;
+    private JTextArea mContentArea;
+
+    public JPanel getMainPanel() {
+        return mainPanel;
+    }
+
+    public JTextArea getContentArea() {
+        return mContentArea;
+    }
+}
@@ -1,5 +1,6 @@
 package com.ganguo.java.plugin.ui.form;
 
+import com.ganguo.java.plugin.constant.SqlDialect;
 import com.ganguo.java.plugin.constant.TemplateName;
 import com.ganguo.java.plugin.ui.BaseForm;
 import com.intellij.openapi.application.ApplicationManager;
@@ -37,6 +38,14 @@ public class ConfigurationForm implements BaseForm {
     @Getter
     private JTextField translateSecretField;
 
+    @Getter
+    private JCheckBox autoFormatSqlCheckBox;
+
+    private JComboBox<SqlDialect> sqlDialectComboBox;
+
+    @Getter
+    private JTextField sqlKeywordsField;
+
     private Map<TemplateName, Editor> editorMap = new HashMap<>();
 
     private EditorFactory editorFactory;
@@ -48,6 +57,8 @@ public class ConfigurationForm implements BaseForm {
         editorFactory = EditorFactory.getInstance();
         FileType fileType = FileTypeManager.getInstance().getFileTypeByExtension("vm");
 
+        sqlDialectComboBox.setModel(new DefaultComboBoxModel<>(SqlDialect.values()));
+
         templateMap.entrySet().forEach(entry -> addTab(editorFactory, fileType, entry));
 
         if (tabPane.getTabCount() > 0) {
@@ -68,6 +79,14 @@ public class ConfigurationForm implements BaseForm {
         });
     }
 
+    public SqlDialect getSqlDialect() {
+        return (SqlDialect) sqlDialectComboBox.getSelectedItem();
+    }
+
+    public void setSqlDialect(SqlDialect dialect) {
+        sqlDialectComboBox.setSelectedItem(dialect);
+    }
+
     public Map<TemplateName, String> getTemplateMap() {
         return editorMap.entrySet().stream()
                 .collect(Collectors.toMap(Map.Entry::getKey,
@@ -1,12 +1,15 @@
 package com.ganguo.java.plugin.util;
 
 import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
 import com.intellij.openapi.fileEditor.OpenFileDescriptor;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.util.Computable;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.PsiDirectory;
 import com.intellij.psi.PsiFile;
+import com.intellij.util.text.CharSequenceReader;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 
@@ -91,15 +94,63 @@ public class FileUtils {
     }
 
     /**
-     * 修改文件的内容
+     * 读取配置文件，优先从文件的Document中读取，这样修改后可以增量写回
+     *
+     * @param file 文件
+     * @return 配置文件
+     */
+    public static SafeProperties loadProperties(VirtualFile file) throws IOException {
+        SafeProperties properties = new SafeProperties();
+        Document document = FileDocumentManager.getInstance().getDocument(file);
+        if (document == null) {
+            properties.load(file.getInputStream());
+        } else {
+            properties.load(new CharSequenceReader(document.getImmutableCharSequence()));
+            properties.getContext().setSourceStamp(document.getModificationStamp());
+        }
+        return properties;
+    }
+
+    /**
+     * 读取配置文件后，文件的Document是否又被修改过
+     *
+     * @param file       文件
+     * @param properties 从文件读取的配置文件
+     * @return true为被修改过，不能再按读取时的内容写回
+     */
+    public static boolean isModified(VirtualFile file, SafeProperties properties) {
+        FileDocumentManager manager = FileDocumentManager.getInstance();
+        Document document = manager.getCachedDocument(file);
+        if (document == null) return false;
+
+        long stamp = properties.getContext().getSourceStamp();
+        // 直接从文件读取时没有Document的修改标记，有未保存的修改就当作被修改过
+        return stamp != -1 ? stamp != document.getModificationStamp() : manager.isDocumentUnsaved(document);
+    }
+
+    /**
+     * 修改文件的内容，如果配置文件是从文件的Document中读取的，则只插入或删除修改过的行。
+     * 读取后Document又被修改过时不写入，避免覆盖用户的修改
      *
      * @param file       文件
      * @param properties 配置文件
+     * @throws IOException 写入失败或读取后文件被修改过
      */
     public static void setContent(VirtualFile file, SafeProperties properties) throws IOException {
+        if (isModified(file, properties)) {
+            throw new IOException(file.getName() + "读取后已被修改");
+        }
+
+        Document document = FileDocumentManager.getInstance().getDocument(file);
+        if (document != null && properties.getContext().patch(document)) {
+            return;
+        }
+
         ByteArrayOutputStream bos = new ByteArrayOutputStream();
         properties.store(bos, null);
         setContent(file, bos.toByteArray());
+        // 行号已失效，不能再增量写入
+        properties.getContext().setSourceStamp(-1);
     }
 
     /**
@@ -1,11 +1,15 @@
 package com.ganguo.java.plugin.util;
 
 import com.google.gson.Gson;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.Project;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.io.IOUtils;
 import org.apache.http.HttpEntity;
 import org.apache.http.HttpStatus;
 import org.apache.http.NameValuePair;
@@ -22,19 +26,32 @@ import org.apache.http.client.utils.URIBuilder;
 import org.apache.http.entity.ContentType;
 import org.apache.http.entity.StringEntity;
 import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
 import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.apache.http.message.BasicNameValuePair;
 import org.apache.http.util.EntityUtils;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.IOException;
 import java.io.Serializable;
 import java.io.UnsupportedEncodingException;
+import java.net.URISyntaxException;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Description: httpClient工具类
@@ -54,10 +71,41 @@ public class HttpClientUtils {
     // 请求获取数据的超时时间(即响应时间)，单位毫秒。
     private static final int SOCKET_TIMEOUT = 6000;
 
-    public static byte[] doGetByte(String url, Map<String, String> params) throws Exception {
-        // 创建httpClient对象
-        CloseableHttpClient httpClient = HttpClients.createDefault();
+    // 从连接池获取连接的超时时间，单位毫秒。
+    private static final int CONNECTION_REQUEST_TIMEOUT = 6000;
+
+    // 连接池最大连接数，可通过VM参数修改
+    private static final int MAX_TOTAL = Integer.getInteger("ganguo.http.maxTotal", 20);
+
+    // 每个域名的最大连接数，可通过VM参数修改
+    private static final int MAX_PER_ROUTE = Integer.getInteger("ganguo.http.maxPerRoute", 10);
+
+    // 连接空闲多久后关闭，单位秒。
+    private static final long MAX_IDLE_TIME = 60;
+
+    // 连接最长存活时间，单位秒。
+    private static final long TIME_TO_LIVE = 300;
+
+    // 连接空闲多久后使用前需要检查，单位毫秒。
+    private static final int VALIDATE_AFTER_INACTIVITY = 2000;
+
+    // 异步请求的线程数
+    private static final int ASYNC_THREADS = 4;
 
+    // 异步请求最多排队的个数，超过时请求失败
+    private static final int ASYNC_QUEUE_SIZE = 64;
+
+    // 异步请求的线程空闲多久后结束，单位秒。
+    private static final long KEEP_ALIVE_TIME = 60;
+
+    // 等待异步请求时检查是否取消的间隔，单位毫秒。
+    private static final long CHECK_CANCELED_INTERVAL = 100;
+
+    private static volatile CloseableHttpClient httpClient;
+    private static volatile ExecutorService executor;
+    private static PoolingHttpClientConnectionManager connectionManager;
+
+    public static byte[] doGetByte(String url, Map<String, String> params) throws Exception {
         // 创建访问的地址
         URIBuilder uriBuilder = new URIBuilder(url);
         if (params != null && !params.isEmpty()) {
@@ -69,32 +117,17 @@ public class HttpClientUtils {
 
         // 创建http对象
         HttpGet httpGet = new HttpGet(uriBuilder.build());
-        /*
-          setConnectTimeout：设置连接超时时间，单位毫秒。
-          setConnectionRequestTimeout：设置从connect Manager(连接池)获取Connection
-          超时时间，单位毫秒。这个属性是新加的属性，因为目前版本是可以共享连接池的。
-          setSocketTimeout：请求获取数据的超时时间(即响应时间)，单位毫秒。 如果访问一个接口，多少时间内无法返回数据，就直接放弃此次调用。
-         */
-        RequestConfig requestConfig = RequestConfig.custom().setConnectTimeout(CONNECT_TIMEOUT).setSocketTimeout(SOCKET_TIMEOUT).build();
-        httpGet.setConfig(requestConfig);
 
-        // 创建httpResponse对象
-        CloseableHttpResponse httpResponse = null;
-
-        try {
-            // 执行请求
-            httpResponse = httpClient.execute(httpGet);
-
-            // 获取返回结果
-            if (httpResponse != null && httpResponse.getStatusLine() != null &&
-                    httpResponse.getStatusLine().getStatusCode() == HttpStatus.SC_OK) {
-                HttpEntity entity = httpResponse.getEntity();
-                return IOUtils.readFully(entity.getContent(), (int) entity.getContentLength());
+        // 执行请求，关闭响应后连接回到连接池
+        try (CloseableHttpResponse httpResponse = getHttpClient().execute(httpGet)) {
+            HttpEntity entity = httpResponse.getEntity();
+            if (httpResponse.getStatusLine() != null &&
+                    httpResponse.getStatusLine().getStatusCode() == HttpStatus.SC_OK && entity != null) {
+                return EntityUtils.toByteArray(entity);
             }
+            // 读完响应内容，连接才能复用
+            EntityUtils.consume(entity);
             return null;
-        } finally {
-            // 释放资源
-            release(httpResponse, httpClient);
         }
     }
 
@@ -131,9 +164,38 @@ public class HttpClientUtils {
      * @throws Exception
      */
     public static HttpClientResult doGet(String url, Map<String, String> headers, Map<String, String> params) throws Exception {
-        // 创建httpClient对象
-        CloseableHttpClient httpClient = HttpClients.createDefault();
+        // 执行请求并获得响应结果
+        return getHttpClientResult(createGet(url, headers, params));
+    }
+
+    /**
+     * 异步发送get请求；带请求参数，在后台线程池中执行
+     *
+     * @param url    请求地址
+     * @param params 请求参数集合
+     * @return 请求结果，取消时中止请求
+     * @throws Exception
+     */
+    public static CompletableFuture<HttpClientResult> doGetAsync(String url, Map<String, String> params) throws Exception {
+        return executeAsync(createGet(url, null, params), null);
+    }
 
+    /**
+     * 异步发送get请求；带请求参数，在后台线程池中执行，发送前等待rateLimiter分配的时间
+     *
+     * @param url         请求地址
+     * @param params      请求参数集合
+     * @param rateLimiter 请求频率限制
+     * @return 请求结果，取消时中止请求
+     * @throws Exception
+     */
+    public static CompletableFuture<HttpClientResult> doGetAsync(String url, Map<String, String> params,
+                                                                 RateLimiter rateLimiter) throws Exception {
+        return executeAsync(createGet(url, null, params), rateLimiter);
+    }
+
+    private static HttpGet createGet(String url, Map<String, String> headers, Map<String, String> params)
+            throws URISyntaxException {
         // 创建访问的地址
         URIBuilder uriBuilder = new URIBuilder(url);
         if (params != null) {
@@ -145,28 +207,10 @@ public class HttpClientUtils {
 
         // 创建http对象
         HttpGet httpGet = new HttpGet(uriBuilder.build());
-        /**
-         * setConnectTimeout：设置连接超时时间，单位毫秒。
-         * setConnectionRequestTimeout：设置从connect Manager(连接池)获取Connection
-         * 超时时间，单位毫秒。这个属性是新加的属性，因为目前版本是可以共享连接池的。
-         * setSocketTimeout：请求获取数据的超时时间(即响应时间)，单位毫秒。 如果访问一个接口，多少时间内无法返回数据，就直接放弃此次调用。
-         */
-        RequestConfig requestConfig = RequestConfig.custom().setConnectTimeout(CONNECT_TIMEOUT).setSocketTimeout(SOCKET_TIMEOUT).build();
-        httpGet.setConfig(requestConfig);
 
         // 设置请求头
         packageHeader(headers, httpGet);
-
-        // 创建httpResponse对象
-        CloseableHttpResponse httpResponse = null;
-
-        try {
-            // 执行请求并获得响应结果
-            return getHttpClientResult(httpResponse, httpClient, httpGet);
-        } finally {
-            // 释放资源
-            release(httpResponse, httpClient);
-        }
+        return httpGet;
     }
 
     /**
@@ -202,19 +246,40 @@ public class HttpClientUtils {
      * @throws Exception
      */
     public static HttpClientResult doPost(String url, Map<String, String> headers, Map<String, String> params) throws Exception {
-        // 创建httpClient对象
-        CloseableHttpClient httpClient = HttpClients.createDefault();
+        // 执行请求并获得响应结果
+        return getHttpClientResult(createPost(url, headers, params));
+    }
+
+    /**
+     * 异步发送post请求；带请求参数，在后台线程池中执行
+     *
+     * @param url    请求地址
+     * @param params 参数集合
+     * @return 请求结果，取消时中止请求
+     * @throws Exception
+     */
+    public static CompletableFuture<HttpClientResult> doPostAsync(String url, Map<String, String> params) throws Exception {
+        return executeAsync(createPost(url, null, params), null);
+    }
+
+    /**
+     * 异步发送post请求；带请求参数，在后台线程池中执行，发送前等待rateLimiter分配的时间
+     *
+     * @param url         请求地址
+     * @param params      参数集合
+     * @param rateLimiter 请求频率限制
+     * @return 请求结果，取消时中止请求
+     * @throws Exception
+     */
+    public static CompletableFuture<HttpClientResult> doPostAsync(String url, Map<String, String> params,
+                                                                  RateLimiter rateLimiter) throws Exception {
+        return executeAsync(createPost(url, null, params), rateLimiter);
+    }
 
+    private static HttpPost createPost(String url, Map<String, String> headers, Map<String, String> params)
+            throws UnsupportedEncodingException {
         // 创建http对象
         HttpPost httpPost = new HttpPost(url);
-        /**
-         * setConnectTimeout：设置连接超时时间，单位毫秒。
-         * setConnectionRequestTimeout：设置从connect Manager(连接池)获取Connection
-         * 超时时间，单位毫秒。这个属性是新加的属性，因为目前版本是可以共享连接池的。
-         * setSocketTimeout：请求获取数据的超时时间(即响应时间)，单位毫秒。 如果访问一个接口，多少时间内无法返回数据，就直接放弃此次调用。
-         */
-        RequestConfig requestConfig = RequestConfig.custom().setConnectTimeout(CONNECT_TIMEOUT).setSocketTimeout(SOCKET_TIMEOUT).build();
-        httpPost.setConfig(requestConfig);
         // 设置请求头
         /*httpPost.setHeader("Cookie", "");
         httpPost.setHeader("Connection", "keep-alive");
@@ -226,17 +291,7 @@ public class HttpClientUtils {
 
         // 封装请求参数
         packageParam(params, httpPost);
-
-        // 创建httpResponse对象
-        CloseableHttpResponse httpResponse = null;
-
-        try {
-            // 执行请求并获得响应结果
-            return getHttpClientResult(httpResponse, httpClient, httpPost);
-        } finally {
-            // 释放资源
-            release(httpResponse, httpClient);
-        }
+        return httpPost;
     }
 
     /**
@@ -248,10 +303,7 @@ public class HttpClientUtils {
      * @throws Exception
      */
     public static HttpClientResult doPostJson(String url, Object obj) throws Exception {
-        CloseableHttpClient httpClient = HttpClients.createDefault();
         HttpPost httpPost = new HttpPost(url);
-        RequestConfig requestConfig = RequestConfig.custom().setConnectTimeout(CONNECT_TIMEOUT).setSocketTimeout(SOCKET_TIMEOUT).build();
-        httpPost.setConfig(requestConfig);
 
         String data = new Gson().toJson(obj);
         StringEntity entity = new StringEntity(data, StandardCharsets.UTF_8.displayName());
@@ -259,12 +311,7 @@ public class HttpClientUtils {
         entity.setContentType(ContentType.APPLICATION_JSON.getMimeType());
         httpPost.setEntity(entity);
 
-        CloseableHttpResponse httpResponse = null;
-        try {
-            return getHttpClientResult(httpResponse, httpClient, httpPost);
-        } finally {
-            release(httpResponse, httpClient);
-        }
+        return getHttpClientResult(httpPost);
     }
 
     /**
@@ -275,7 +322,7 @@ public class HttpClientUtils {
      * @throws Exception
      */
     public static HttpClientResult doPut(String url) throws Exception {
-        return doPut(url);
+        return doPut(url, null);
     }
 
     /**
@@ -287,20 +334,11 @@ public class HttpClientUtils {
      * @throws Exception
      */
     public static HttpClientResult doPut(String url, Map<String, String> params) throws Exception {
-        CloseableHttpClient httpClient = HttpClients.createDefault();
         HttpPut httpPut = new HttpPut(url);
-        RequestConfig requestConfig = RequestConfig.custom().setConnectTimeout(CONNECT_TIMEOUT).setSocketTimeout(SOCKET_TIMEOUT).build();
-        httpPut.setConfig(requestConfig);
 
         packageParam(params, httpPut);
 
-        CloseableHttpResponse httpResponse = null;
-
-        try {
-            return getHttpClientResult(httpResponse, httpClient, httpPut);
-        } finally {
-            release(httpResponse, httpClient);
-        }
+        return getHttpClientResult(httpPut);
     }
 
     /**
@@ -311,17 +349,9 @@ public class HttpClientUtils {
      * @throws Exception
      */
     public static HttpClientResult doDelete(String url) throws Exception {
-        CloseableHttpClient httpClient = HttpClients.createDefault();
         HttpDelete httpDelete = new HttpDelete(url);
-        RequestConfig requestConfig = RequestConfig.custom().setConnectTimeout(CONNECT_TIMEOUT).setSocketTimeout(SOCKET_TIMEOUT).build();
-        httpDelete.setConfig(requestConfig);
 
-        CloseableHttpResponse httpResponse = null;
-        try {
-            return getHttpClientResult(httpResponse, httpClient, httpDelete);
-        } finally {
-            release(httpResponse, httpClient);
-        }
+        return getHttpClientResult(httpDelete);
     }
 
     /**
@@ -381,47 +411,194 @@ public class HttpClientUtils {
     }
 
     /**
-     * Description: 获得响应结果
+     * Description: 获得响应结果，关闭响应后连接回到连接池
      *
-     * @param httpResponse
-     * @param httpClient
      * @param httpMethod
      * @return
      * @throws Exception
      */
-    public static HttpClientResult getHttpClientResult(CloseableHttpResponse httpResponse,
-                                                       CloseableHttpClient httpClient, HttpRequestBase httpMethod) throws Exception {
+    public static HttpClientResult getHttpClientResult(HttpRequestBase httpMethod) throws Exception {
         // 执行请求
-        httpResponse = httpClient.execute(httpMethod);
+        try (CloseableHttpResponse httpResponse = getHttpClient().execute(httpMethod)) {
+            // 获取返回结果
+            if (httpResponse.getStatusLine() != null) {
+                String content = "";
+                if (httpResponse.getEntity() != null) {
+                    content = EntityUtils.toString(httpResponse.getEntity(), ENCODING);
+                }
+                return new HttpClientResult(httpResponse.getStatusLine().getStatusCode(), content);
+            }
+            EntityUtils.consume(httpResponse.getEntity());
+            return new HttpClientResult(HttpStatus.SC_INTERNAL_SERVER_ERROR);
+        }
+    }
 
-        // 获取返回结果
-        if (httpResponse != null && httpResponse.getStatusLine() != null) {
-            String content = "";
-            if (httpResponse.getEntity() != null) {
-                content = EntityUtils.toString(httpResponse.getEntity(), ENCODING);
+    /**
+     * 在后台线程池中执行请求，取消返回的future时中止请求
+     *
+     * @param rateLimiter 请求频率限制，可为null
+     */
+    private static CompletableFuture<HttpClientResult> executeAsync(HttpRequestBase httpMethod,
+                                                                    @Nullable RateLimiter rateLimiter) {
+        CompletableFuture<HttpClientResult> future = new CompletableFuture<>();
+        try {
+            getExecutor().execute(() -> {
+                if (future.isDone()) return;
+                try {
+                    if (rateLimiter != null) {
+                        rateLimiter.acquire();
+                        if (future.isDone()) return;
+                    }
+                    future.complete(getHttpClientResult(httpMethod));
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        // 中止正在进行的请求，连接会被关闭，不会回到连接池
+        future.whenComplete((result, e) -> {
+            if (future.isCancelled()) {
+                httpMethod.abort();
             }
-            return new HttpClientResult(httpResponse.getStatusLine().getStatusCode(), content);
+        });
+        return future;
+    }
+
+    /**
+     * 等待异步请求的结果，每隔一段时间检查进度是否被取消，被取消时同时取消请求
+     *
+     * @param future    异步请求
+     * @param indicator 进度，可为null
+     * @return 请求结果
+     * @throws ProcessCanceledException 进度被取消
+     * @throws Exception                请求失败的原因
+     */
+    public static <T> T await(CompletableFuture<T> future, @Nullable ProgressIndicator indicator) throws Exception {
+        try {
+            while (true) {
+                if (indicator != null) {
+                    indicator.checkCanceled();
+                }
+                try {
+                    return future.get(CHECK_CANCELED_INTERVAL, TimeUnit.MILLISECONDS);
+                } catch (TimeoutException ignored) {
+                    // 继续等待
+                }
+            }
+        } catch (ProcessCanceledException | InterruptedException e) {
+            future.cancel(true);
+            throw e;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof Exception ? (Exception) cause : e;
         }
-        return new HttpClientResult(HttpStatus.SC_INTERNAL_SERVER_ERROR);
     }
 
     /**
-     * Description: 释放资源
+     * 等待异步请求的结果，在界面线程中调用时显示可取消的进度框，等待期间界面仍然可以响应
      *
-     * @param httpResponse
-     * @param httpClient
-     * @throws IOException
+     * @param future  异步请求
+     * @param title   进度框标题
+     * @param project 项目，可为null
+     * @return 请求结果
+     * @throws ProcessCanceledException 进度被取消
+     * @throws Exception                请求失败的原因
      */
-    public static void release(CloseableHttpResponse httpResponse, CloseableHttpClient httpClient) throws IOException {
-        // 释放资源
-        if (httpResponse != null) {
-            httpResponse.close();
+    public static <T> T await(CompletableFuture<T> future, String title, @Nullable Project project) throws Exception {
+        ProgressManager progressManager = ProgressManager.getInstance();
+        if (!ApplicationManager.getApplication().isDispatchThread()) {
+            return await(future, progressManager.getProgressIndicator());
         }
-        if (httpClient != null) {
-            httpClient.close();
+        return progressManager.runProcessWithProgressSynchronously(
+                () -> await(future, progressManager.getProgressIndicator()), title, true, project);
+    }
+
+    /**
+     * 执行异步请求的线程池，线程数和排队的请求数都有上限，第一次使用时创建
+     */
+    private static ExecutorService getExecutor() {
+        ExecutorService service = executor;
+        if (service != null) return service;
+
+        synchronized (HttpClientUtils.class) {
+            if (executor == null) {
+                AtomicInteger count = new AtomicInteger();
+                ThreadPoolExecutor pool = new ThreadPoolExecutor(ASYNC_THREADS, ASYNC_THREADS,
+                        KEEP_ALIVE_TIME, TimeUnit.SECONDS, new LinkedBlockingQueue<>(ASYNC_QUEUE_SIZE), r -> {
+                    Thread thread = new Thread(r, "Ganguo-Http-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+                pool.allowCoreThreadTimeOut(true);
+                executor = pool;
+            }
+            return executor;
         }
     }
 
+    /**
+     * 共享的httpClient，第一次使用时创建
+     */
+    private static CloseableHttpClient getHttpClient() {
+        CloseableHttpClient client = httpClient;
+        if (client != null) return client;
+
+        synchronized (HttpClientUtils.class) {
+            if (httpClient == null) {
+                connectionManager = new PoolingHttpClientConnectionManager(TIME_TO_LIVE, TimeUnit.SECONDS);
+                connectionManager.setMaxTotal(MAX_TOTAL);
+                connectionManager.setDefaultMaxPerRoute(MAX_PER_ROUTE);
+                // 空闲一段时间的连接使用前先检查是否已被服务器关闭
+                connectionManager.setValidateAfterInactivity(VALIDATE_AFTER_INACTIVITY);
+
+                /*
+                  setConnectTimeout：设置连接超时时间，单位毫秒。
+                  setConnectionRequestTimeout：设置从connect Manager(连接池)获取Connection
+                  超时时间，单位毫秒。
+                  setSocketTimeout：请求获取数据的超时时间(即响应时间)，单位毫秒。 如果访问一个接口，多少时间内无法返回数据，就直接放弃此次调用。
+                 */
+                RequestConfig requestConfig = RequestConfig.custom()
+                        .setConnectTimeout(CONNECT_TIMEOUT)
+                        .setConnectionRequestTimeout(CONNECTION_REQUEST_TIMEOUT)
+                        .setSocketTimeout(SOCKET_TIMEOUT)
+                        .build();
+
+                // 后台线程定时关闭过期和空闲的连接
+                httpClient = HttpClients.custom()
+                        .setConnectionManager(connectionManager)
+                        .setDefaultRequestConfig(requestConfig)
+                        .setKeepAliveStrategy(DefaultConnectionKeepAliveStrategy.INSTANCE)
+                        .evictExpiredConnections()
+                        .evictIdleConnections(MAX_IDLE_TIME, TimeUnit.SECONDS)
+                        .build();
+            }
+            return httpClient;
+        }
+    }
+
+    /**
+     * 关闭异步请求的线程池、共享的httpClient和连接池，插件卸载时调用
+     */
+    public static void shutdown() {
+        synchronized (HttpClientUtils.class) {
+            if (executor != null) {
+                executor.shutdownNow();
+                executor = null;
+            }
+            if (httpClient == null) return;
+            try {
+                httpClient.close();
+            } catch (IOException e) {
+                log.error("close httpClient fail", e);
+            } finally {
+                connectionManager.shutdown();
+                httpClient = null;
+                connectionManager = null;
+            }
+        }
+    }
 
     /**
      * Description: 封装httpClient响应结果
@@ -1,6 +1,10 @@
 package com.ganguo.java.plugin.util;
 
+import com.ganguo.java.plugin.constant.Filenames;
+import com.ganguo.java.plugin.index.MsgKeyIndex;
+import com.ganguo.java.plugin.index.MsgValueIndex;
 import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.project.DumbService;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.util.Computable;
 import com.intellij.openapi.vfs.VirtualFile;
@@ -10,8 +14,16 @@ import com.intellij.psi.impl.java.stubs.index.JavaFullClassNameIndex;
 import com.intellij.psi.impl.java.stubs.index.JavaShortClassNameIndex;
 import com.intellij.psi.search.FilenameIndex;
 import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.util.indexing.FileBasedIndex;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 
 public class IndexUtils {
 
@@ -53,4 +65,63 @@ public class IndexUtils {
                 .findFirst()
                 .orElse(null);
     }
+
+    /**
+     * 通过索引按Msg查找Key，Msg经过{@link PropertiesValueIndex#normalize(String)}处理后比较，索引未就绪时直接读取文件。
+     * 只查找当前项目i18n目录下的exception_msg*.properties，不包括其他模块的文件
+     *
+     * @param project project
+     * @param value   Msg
+     * @return i18n目录下所有文件中Msg相同的Key
+     */
+    public static Set<String> getMsgKeysByValue(Project project, String value) {
+        Set<String> result = new TreeSet<>();
+        if (DumbService.isDumb(project)) {
+            MsgBundleHelper msgBundleHelper = new MsgBundleHelper(project);
+            for (VirtualFile file : msgBundleHelper.getFiles()) {
+                String key = msgBundleHelper.getProperties(file).getValueIndex().getKey(value);
+                if (key != null) {
+                    result.add(key);
+                }
+            }
+            return result;
+        }
+
+        VirtualFile i18nDir = ProjectUtils.getI18nDirFile(project);
+        if (i18nDir == null) return result;
+
+        String normalized = PropertiesValueIndex.normalize(value);
+        ApplicationManager.getApplication().runReadAction(() -> {
+            List<VirtualFile> files = new ArrayList<>();
+            for (VirtualFile file : i18nDir.getChildren()) {
+                if (file.getName().matches(Filenames.MSG_PROPERTIES_PATTERN)) {
+                    files.add(file);
+                }
+            }
+            result.addAll(FileBasedIndex.getInstance()
+                    .getValues(MsgValueIndex.NAME, normalized, GlobalSearchScope.filesScope(project, files)));
+        });
+        return result;
+    }
+
+    /**
+     * 通过索引一次查出每个Key所在的exception_msg*.properties
+     *
+     * @param project project
+     * @param scope   查找范围
+     * @return Key到包含它的文件的映射，不包含范围内没有的Key
+     */
+    public static Map<String, Set<VirtualFile>> getMsgFilesByKey(Project project, GlobalSearchScope scope) {
+        return ApplicationManager.getApplication().runReadAction((Computable<Map<String, Set<VirtualFile>>>) () -> {
+            FileBasedIndex index = FileBasedIndex.getInstance();
+            Map<String, Set<VirtualFile>> result = new HashMap<>();
+            for (String key : index.getAllKeys(MsgKeyIndex.NAME, project)) {
+                Collection<VirtualFile> files = index.getContainingFiles(MsgKeyIndex.NAME, key, scope);
+                if (!files.isEmpty()) {
+                    result.put(key, new HashSet<>(files));
+                }
+            }
+            return result;
+        });
+    }
 }
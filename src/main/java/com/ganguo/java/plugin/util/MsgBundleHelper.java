@@ -0,0 +1,348 @@
+package com.ganguo.java.plugin.util;
+
+import com.ganguo.java.plugin.constant.Filenames;
+import com.ganguo.java.plugin.service.MsgBundleService;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * 同时操作所有语言的exception_msg*.properties，解析结果来自{@link MsgBundleService}的缓存，
+ * 第一次修改文件时复制一份，写入成功后才更新缓存
+ */
+@Slf4j
+public class MsgBundleHelper {
+
+    private static final String MSG_PREFIX = "exception_msg";
+    private static final String LOCALE_EN = "en";
+
+    /** 通知中最多列出的Key数 */
+    private static final int MAX_NOTIFY_KEY_COUNT = 10;
+
+    /** 作为基准的文件，优先级从高到低 */
+    private static final List<String> BASE_FILENAMES = Arrays.asList(Filenames.MSG_PROPERTIES,
+            Filenames.MSG_ZH_PROPERTIES, Filenames.MSG_ZH_CN_PROPERTIES, Filenames.MSG_EN_PROPERTIES);
+
+    private final MsgBundleService msgBundleService;
+    private final Map<VirtualFile, SafeProperties> bundles;
+    /** 已复制的文件，缓存中的对象是共用的，不能直接修改 */
+    private final Set<VirtualFile> copiedFiles = new HashSet<>();
+    private final Set<VirtualFile> changedFiles = new LinkedHashSet<>();
+
+    /**
+     * 并行加载i18n目录下所有的exception_msg*.properties
+     *
+     * @param project project
+     */
+    public MsgBundleHelper(Project project) {
+        this(project, ProjectUtils.getI18nDirFile(project));
+    }
+
+    public MsgBundleHelper(Project project, @Nullable VirtualFile i18nDir) {
+        msgBundleService = MsgBundleService.getInstance(project);
+
+        List<VirtualFile> files = new ArrayList<>();
+        if (i18nDir != null) {
+            for (VirtualFile file : i18nDir.getChildren()) {
+                if (file.getName().matches(Filenames.MSG_PROPERTIES_PATTERN)) {
+                    files.add(file);
+                }
+            }
+        }
+        files.sort(Comparator.comparingInt(MsgBundleHelper::getBasePriority)
+                .thenComparing(VirtualFile::getName));
+
+        SafeProperties[] properties = new SafeProperties[files.size()];
+        // 已在读操作中时不并行加载，避免其他线程申请读锁时被等待中的写操作阻塞
+        IntStream indexes = IntStream.range(0, files.size());
+        if (!ApplicationManager.getApplication().isReadAccessAllowed()) {
+            indexes = indexes.parallel();
+        }
+        try {
+            indexes.forEach(i -> {
+                VirtualFile file = files.get(i);
+                try {
+                    properties[i] = ReadAction.compute(() -> msgBundleService.getProperties(file));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            log.error("load {} fail", Filenames.MSG_PROPERTIES, e.getCause());
+            throw new RuntimeException(e.getCause());
+        }
+
+        bundles = new LinkedHashMap<>();
+        for (int i = 0; i < properties.length; i++) {
+            bundles.put(files.get(i), properties[i]);
+        }
+    }
+
+    /**
+     * 所有语言的文件，第一个为基准文件
+     */
+    public List<VirtualFile> getFiles() {
+        return new ArrayList<>(bundles.keySet());
+    }
+
+    /**
+     * 基准文件，依次为exception_msg、_zh、_zh_CN、_en，都不存在时为其他语言的文件
+     */
+    @Nullable
+    public VirtualFile getBaseFile() {
+        return bundles.isEmpty() ? null : bundles.keySet().iterator().next();
+    }
+
+    /**
+     * 获取文件的内容，只能读取，修改时使用add、remove等方法
+     */
+    public SafeProperties getProperties(VirtualFile file) {
+        return bundles.get(file);
+    }
+
+    /**
+     * 获取文件的语言，如exception_msg_zh_CN.properties为zh_CN，exception_msg.properties为空字符串
+     */
+    public static String getLocale(VirtualFile file) {
+        String name = file.getNameWithoutExtension();
+        return name.length() > MSG_PREFIX.length() ? name.substring(MSG_PREFIX.length() + 1) : "";
+    }
+
+    /**
+     * 添加到所有语言中，英文文件的值由translateHelper翻译，翻译失败或translateHelper为null时使用原值，
+     * 翻译失败时通知使用了原值的Key
+     *
+     * @param key             键
+     * @param value           值
+     * @param translateHelper 翻译器，可为null
+     */
+    public MsgBundleHelper add(String key, String value, @Nullable TranslateHelper translateHelper) {
+        return addAll(Collections.singletonMap(key, value), translateHelper);
+    }
+
+    /**
+     * 批量添加到所有语言中
+     *
+     * @param msgMap          键和值
+     * @param translateHelper 翻译器，可为null
+     */
+    public MsgBundleHelper addAll(Map<String, String> msgMap, @Nullable TranslateHelper translateHelper) {
+        if (msgMap.isEmpty()) return this;
+
+        Map<String, String> enMap = null;
+        for (VirtualFile file : getFiles()) {
+            Map<String, String> values = msgMap;
+            if (translateHelper != null && LOCALE_EN.equals(getLocale(file))) {
+                if (enMap == null) {
+                    enMap = translate(msgMap, translateHelper);
+                }
+                values = enMap;
+            }
+
+            values.forEach(edit(file)::setProperty);
+        }
+        return this;
+    }
+
+    /**
+     * 只添加到缺少该Key的语言中，已有的值保持不变
+     *
+     * @param key   键
+     * @param value 值
+     */
+    public MsgBundleHelper addIfAbsent(String key, String value) {
+        for (VirtualFile file : getFiles()) {
+            if (!bundles.get(file).containsKey(key)) {
+                edit(file).setProperty(key, value);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * 从所有语言中删除
+     *
+     * @param key 键
+     */
+    public MsgBundleHelper remove(String key) {
+        for (VirtualFile file : getFiles()) {
+            if (bundles.get(file).containsKey(key)) {
+                edit(file).remove(key);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * 获取要修改的文件，第一次修改时复制缓存中的对象
+     */
+    private SafeProperties edit(VirtualFile file) {
+        changedFiles.add(file);
+        SafeProperties properties = bundles.get(file);
+        if (copiedFiles.add(file)) {
+            properties = properties.copy();
+            bundles.put(file, properties);
+        }
+        return properties;
+    }
+
+    /**
+     * 预先计算修改过的文件要插入和删除的行，可在后台线程的读操作中调用，
+     * 之后{@link #write(WriteActions)}时只检查文件是否修改过并应用这些改动
+     */
+    public MsgBundleHelper preparePatches() {
+        changedFiles.forEach(file -> bundles.get(file).getContext().preparePatch());
+        return this;
+    }
+
+    /**
+     * 要修改的文件在读取后是否又被修改过，被修改过时应重新读取后再修改，不能写回
+     */
+    public boolean isModified() {
+        return changedFiles.stream().anyMatch(file -> FileUtils.isModified(file, bundles.get(file)));
+    }
+
+    /**
+     * 把修改过的文件写回，写操作添加到writeActions中，写入成功后更新缓存，失败时清除缓存
+     */
+    public MsgBundleHelper write(WriteActions writeActions) {
+        List<VirtualFile> files = new ArrayList<>(changedFiles);
+        changedFiles.clear();
+        if (files.isEmpty()) return this;
+
+        writeActions.add(() -> files.forEach(file -> {
+            SafeProperties properties = bundles.get(file);
+            try {
+                FileUtils.setContent(file, properties);
+                // 交给缓存后不能再修改，之后的修改重新复制
+                msgBundleService.update(file, properties);
+                copiedFiles.remove(file);
+            } catch (IOException e) {
+                log.error("write {} fail", file.getPath(), e);
+                msgBundleService.invalidate(file);
+                NotificationHelper.error("写入%s失败：%s", file.getName(), e.getMessage()).show();
+            }
+        }));
+        return this;
+    }
+
+    /**
+     * 检查各语言的Key是否一致
+     *
+     * @return 除基准文件外的每个文件相对于基准文件缺少和多出的Key，一致的文件不包含在内
+     */
+    public Map<VirtualFile, Diff> diff() {
+        Map<VirtualFile, Diff> result = new LinkedHashMap<>();
+        VirtualFile baseFile = getBaseFile();
+        if (baseFile == null) return result;
+
+        Set<String> baseKeys = keySet(bundles.get(baseFile));
+        bundles.forEach((file, properties) -> {
+            if (Objects.equals(file, baseFile)) return;
+
+            Set<String> keys = keySet(properties);
+            Set<String> missingKeys = new TreeSet<>(baseKeys);
+            missingKeys.removeAll(keys);
+            Set<String> extraKeys = new TreeSet<>(keys);
+            extraKeys.removeAll(baseKeys);
+
+            if (!missingKeys.isEmpty() || !extraKeys.isEmpty()) {
+                result.put(file, new Diff(missingKeys, extraKeys));
+            }
+        });
+        return result;
+    }
+
+    private static Set<String> keySet(SafeProperties properties) {
+        Set<String> keys = new HashSet<>();
+        properties.forEach((key, value) -> keys.add((String) key));
+        return keys;
+    }
+
+    /**
+     * 批量翻译所有值，失败时保留原值并提示使用了原值的Key，界面线程中调用时显示可取消的进度框
+     */
+    private static Map<String, String> translate(Map<String, String> msgMap, TranslateHelper translateHelper) {
+        Map<String, String> result = new LinkedHashMap<>(msgMap);
+        List<String> keys = msgMap.entrySet().stream()
+                .filter(entry -> MyStringUtils.hasChinese(entry.getValue()))
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+        if (keys.isEmpty()) return result;
+
+        List<String> values = keys.stream().map(msgMap::get).collect(Collectors.toList());
+        List<String> untranslatedKeys = new ArrayList<>();
+        try {
+            List<String> translated = HttpClientUtils.await(translateHelper.zh2EnAllAsync(values), "翻译中", null);
+            for (int i = 0; i < keys.size(); i++) {
+                String text = translated.get(i);
+                // 无法翻译的短语为原文
+                if (StringUtils.isBlank(text) || text.equals(values.get(i))) {
+                    untranslatedKeys.add(keys.get(i));
+                } else {
+                    result.put(keys.get(i), text);
+                }
+            }
+        } catch (ProcessCanceledException e) {
+            throw e;
+        } catch (Exception e) {
+            log.warn("translate {} fail", values, e);
+            untranslatedKeys = keys;
+        }
+
+        if (!untranslatedKeys.isEmpty()) {
+            notifyUntranslated(untranslatedKeys);
+        }
+        return result;
+    }
+
+    /**
+     * 提示没有翻译、英文文件中使用了原值的Key
+     */
+    private static void notifyUntranslated(List<String> keys) {
+        String keysText = keys.stream().limit(MAX_NOTIFY_KEY_COUNT).collect(Collectors.joining(", "));
+        if (keys.size() > MAX_NOTIFY_KEY_COUNT) {
+            keysText += " ...";
+        }
+        NotificationHelper.warn("%d条Msg翻译失败，英文文件中使用了原值：%s", keys.size(), keysText).show();
+    }
+
+    private static int getBasePriority(VirtualFile file) {
+        int index = BASE_FILENAMES.indexOf(file.getName());
+        return index == -1 ? BASE_FILENAMES.size() : index;
+    }
+
+    /**
+     * 和基准文件相比缺少和多出的Key
+     */
+    @AllArgsConstructor
+    @Getter
+    public static class Diff {
+        private final Set<String> missingKeys;
+        private final Set<String> extraKeys;
+    }
+}
@@ -2,11 +2,10 @@ package com.ganguo.java.plugin.util;
 
 import org.apache.commons.lang3.StringUtils;
 
+import java.nio.CharBuffer;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 public class MyStringUtils {
 
@@ -96,30 +95,16 @@ public class MyStringUtils {
         }
 
         List<String> list = new ArrayList<>();
-        char flagChar = 0;
         int start = 0;
-        char[] charArray = str.toCharArray();
-        for (int i = 0; i < charArray.length; i++) {
-            char ch = charArray[i];
-            if (excludeFlags.indexOf(ch) != -1) {
-                if (flagChar == 0) {
-                    flagChar = ch;
-                } else if (ch == flagChar) {
-                    flagChar = 0;
-                }
-            } else if (flagChar == 0) {
-                int end = i + 1;
-                if (end >= separator.length()) {
-                    if (subEquals(charArray, separator, end - separator.length(), end)) {
-                        list.add(str.substring(start, end - separator.length()));
-                        start = end;
-                    }
-                }
-            }
+        int index;
+        while (start < str.length() &&
+                (index = indexOf(str, separator, start, excludeFlags, false)) != -1) {
+            list.add(str.substring(start, index));
+            start = index + separator.length();
         }
         list.add(str.substring(start));
 
-        return list.toArray(new String[list.size()]);
+        return list.toArray(new String[0]);
     }
 
     /**
@@ -152,7 +137,7 @@ public class MyStringUtils {
             return -1;
         }
 
-        return indexOf(str.toCharArray(), subStr, fromIndex, excludeFlags, caseInsensitive);
+        return indexOfExcluding(str, subStr, fromIndex, excludeFlags, caseInsensitive);
     }
 
     /**
@@ -180,19 +165,32 @@ public class MyStringUtils {
      */
     public static int indexOf(char[] charArray, String subStr, int fromIndex,
                               String excludeFlags, boolean caseInsensitive) {
-        if (Objects.requireNonNull(charArray).length == 0 || StringUtils.isEmpty(subStr)) {
+        return indexOfExcluding(CharBuffer.wrap(Objects.requireNonNull(charArray)), subStr, fromIndex,
+                excludeFlags, caseInsensitive);
+    }
+
+    /**
+     * 直接在原字符序列上查找子字符串，不复制字符序列，子字符串在查找前只转换一次小写
+     */
+    private static int indexOfExcluding(CharSequence text, String subStr, int fromIndex,
+                                        String excludeFlags, boolean caseInsensitive) {
+        if (Objects.requireNonNull(text).length() == 0 || StringUtils.isEmpty(subStr)) {
             return -1;
         }
-        if (fromIndex < 0 || fromIndex >= charArray.length) {
+        if (fromIndex < 0 || fromIndex >= text.length()) {
             throw new IndexOutOfBoundsException();
         }
         if (StringUtils.isEmpty(excludeFlags)) {
             throw new IllegalArgumentException("excludeFlags cannot be empty");
         }
 
+        String needle = caseInsensitive ? toLowerCase(subStr) : subStr;
+        int length = needle.length();
+
+        // 当前所在的包裹字符，0表示不在包裹字符中
         char flagChar = 0;
-        for (int i = fromIndex; i < charArray.length; i++) {
-            char ch = charArray[i];
+        for (int i = fromIndex; i < text.length(); i++) {
+            char ch = text.charAt(i);
             if (excludeFlags.indexOf(ch) != -1) {
                 if (flagChar == 0) {
                     flagChar = ch;
@@ -201,10 +199,8 @@ public class MyStringUtils {
                 }
             } else if (flagChar == 0) {
                 int end = i + 1;
-                if (end >= subStr.length()) {
-                    if (subEquals(charArray, subStr, end - subStr.length(), end, caseInsensitive)) {
-                        return end - subStr.length();
-                    }
+                if (end >= length && regionMatches(text, end - length, needle, caseInsensitive)) {
+                    return end - length;
                 }
             }
         }
@@ -235,6 +231,20 @@ public class MyStringUtils {
      * @return true相同，false不同
      */
     public static boolean subEquals(char[] chars, String other, int start, int end, boolean caseInsensitive) {
+        return subEquals(CharBuffer.wrap(chars), other, start, end, caseInsensitive);
+    }
+
+    /**
+     * 判断字符序列指定范围的字符串是否与给定字符串相同
+     *
+     * @param text            字符序列
+     * @param other           要比较的子字符串
+     * @param start           开始位置
+     * @param end             结束位置，不包括
+     * @param caseInsensitive 是否忽略大小写
+     * @return true相同，false不同
+     */
+    public static boolean subEquals(CharSequence text, String other, int start, int end, boolean caseInsensitive) {
         if (start < 0 || end < 0 || start > end) {
             throw new StringIndexOutOfBoundsException();
         }
@@ -243,20 +253,43 @@ public class MyStringUtils {
             return false;
         }
 
-        for (int i = start; i < end; i++) {
+        return regionMatches(text, start, caseInsensitive ? toLowerCase(other) : other, caseInsensitive);
+    }
+
+    /**
+     * 比较字符序列中从start开始的部分是否与needle相同，忽略大小写时needle须为小写
+     */
+    private static boolean regionMatches(CharSequence text, int start, String needle, boolean caseInsensitive) {
+        for (int i = 0; i < needle.length(); i++) {
+            char ch = text.charAt(start + i);
             if (caseInsensitive) {
-                if (Character.toLowerCase(chars[i]) != Character.toLowerCase(other.charAt(i - start))) {
-                    return false;
-                }
-            } else {
-                if (chars[i] != other.charAt(i - start)) {
-                    return false;
-                }
+                ch = toLowerCase(ch);
+            }
+            if (ch != needle.charAt(i)) {
+                return false;
             }
         }
         return true;
     }
 
+    /**
+     * 逐个字符转换小写，保证长度不变
+     */
+    private static String toLowerCase(String str) {
+        char[] chars = new char[str.length()];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = toLowerCase(str.charAt(i));
+        }
+        return new String(chars);
+    }
+
+    private static char toLowerCase(char ch) {
+        if (ch < 0x80) {
+            return CharacterUtils.isUpperCase(ch) ? (char) (ch + ('a' - 'A')) : ch;
+        }
+        return Character.toLowerCase(ch);
+    }
+
     /**
      * 包裹字符串，如wrap("ab", "'") => 'ab'
      *
@@ -285,24 +318,49 @@ public class MyStringUtils {
      * @return 显示长度
      */
     public static int width(String str) {
-        Pattern pattern = Pattern.compile("([\\u4E00-\\u9FA5]|[\\uFE30-\\uFFA0])");
-        Matcher matcher = pattern.matcher(str);
+        return width(str, 0, str.length());
+    }
+
+    /**
+     * 统计字符序列指定范围的显示长度，直接按字符范围判断，不创建对象
+     *
+     * @param text  字符序列
+     * @param start 开始位置
+     * @param end   结束位置，不包括
+     * @return 显示长度
+     */
+    public static int width(CharSequence text, int start, int end) {
         int n = 0;
-        while (matcher.find()) {
-            n++;
+        for (int i = start; i < end; i++) {
+            if (isChinese(text.charAt(i))) {
+                n++;
+            }
         }
-        return str.length() + (int) Math.round(n * 0.665);
+        return end - start + (int) Math.round(n * 0.665);
     }
 
     /**
      * 判断字符串中是否有中文（汉字/中文标点符号）
      *
      * @param str 字符串
-     * @return true为有，false为没有
+     * @return true有中文，false没有
      */
     public static boolean hasChinese(String str) {
-        Pattern pattern = Pattern.compile("([\\u4E00-\\u9FA5]|[\\uFE30-\\uFFA0])");
-        Matcher matcher = pattern.matcher(str);
-        return matcher.find();
+        for (int i = 0; i < str.length(); i++) {
+            if (isChinese(str.charAt(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 是否为中文字符，包括汉字(U+4E00~U+9FA5)和全角标点(U+FE30~U+FFA0)
+     *
+     * @param ch 字符
+     * @return true是中文
+     */
+    public static boolean isChinese(char ch) {
+        return (ch >= '\u4E00' && ch <= '\u9FA5') || (ch >= '\uFE30' && ch <= '\uFFA0');
     }
 }
@@ -0,0 +1,215 @@
+package com.ganguo.java.plugin.util;
+
+import lombok.AllArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 配置文件的值到键的索引，值会忽略空白、大小写和全角/半角标点的差异，用于查找重复和相似的值
+ */
+public class PropertiesValueIndex {
+
+    /** 相似度阈值，相似度为两个值的二元组的Dice系数 */
+    private static final double SIMILAR_THRESHOLD = 0.6;
+
+    /** 归一化的值 -> 键列表 */
+    private final Map<String, List<String>> keysByValue = new HashMap<>();
+
+    /** 键 -> 归一化的值和它的二元组个数 */
+    private final Map<String, IndexedValue> valueByKey = new HashMap<>();
+
+    /** 二元组 -> 键集合 */
+    private final Map<Integer, Set<String>> keysByBigram = new HashMap<>();
+
+    /**
+     * 添加或者更新键值
+     *
+     * @param key   键
+     * @param value 值
+     */
+    public void put(String key, String value) {
+        remove(key);
+
+        String normalized = normalize(value);
+        Set<Integer> bigrams = bigrams(normalized);
+        valueByKey.put(key, new IndexedValue(normalized, bigrams.size()));
+        keysByValue.computeIfAbsent(normalized, k -> new ArrayList<>(1)).add(key);
+        for (Integer bigram : bigrams) {
+            keysByBigram.computeIfAbsent(bigram, k -> new HashSet<>()).add(key);
+        }
+    }
+
+    /**
+     * 删除键
+     *
+     * @param key 键
+     */
+    public void remove(String key) {
+        IndexedValue indexed = valueByKey.remove(key);
+        if (indexed == null) return;
+
+        String normalized = indexed.normalized;
+        List<String> keys = keysByValue.get(normalized);
+        if (keys != null) {
+            keys.remove(key);
+            if (keys.isEmpty()) {
+                keysByValue.remove(normalized);
+            }
+        }
+        for (Integer bigram : bigrams(normalized)) {
+            Set<String> bigramKeys = keysByBigram.get(bigram);
+            if (bigramKeys != null) {
+                bigramKeys.remove(key);
+                if (bigramKeys.isEmpty()) {
+                    keysByBigram.remove(bigram);
+                }
+            }
+        }
+    }
+
+    /**
+     * 查找值相同的键
+     *
+     * @param value 值
+     * @return 键，不存在则为null
+     */
+    public String getKey(String value) {
+        List<String> keys = keysByValue.get(normalize(value));
+        return keys == null || keys.isEmpty() ? null : keys.get(0);
+    }
+
+    /**
+     * 查找值相似(但不相同)的键，按相似度从高到低排序
+     *
+     * @param value 值
+     * @param limit 最多返回的个数
+     * @return 键列表
+     */
+    public List<String> findSimilarKeys(String value, int limit) {
+        String normalized = normalize(value);
+        Set<Integer> bigrams = bigrams(normalized);
+        if (bigrams.isEmpty()) return Collections.emptyList();
+
+        // 统计每个键共有的二元组个数
+        Map<String, Integer> sharedCounts = new HashMap<>();
+        for (Integer bigram : bigrams) {
+            Set<String> keys = keysByBigram.get(bigram);
+            if (keys != null) {
+                keys.forEach(key -> sharedCounts.merge(key, 1, Integer::sum));
+            }
+        }
+
+        Map<String, Double> similarities = new HashMap<>();
+        sharedCounts.forEach((key, shared) -> {
+            IndexedValue other = valueByKey.get(key);
+            if (normalized.equals(other.normalized)) return;
+
+            double similarity = 2.0 * shared / (bigrams.size() + other.bigramCount);
+            if (similarity >= SIMILAR_THRESHOLD) {
+                similarities.put(key, similarity);
+            }
+        });
+
+        List<String> result = new ArrayList<>(similarities.keySet());
+        result.sort(Comparator.comparing(similarities::get, Comparator.reverseOrder()));
+        return result.size() > limit ? result.subList(0, limit) : result;
+    }
+
+    /**
+     * 复制索引，修改副本不影响原索引
+     */
+    public PropertiesValueIndex copy() {
+        PropertiesValueIndex copy = new PropertiesValueIndex();
+        keysByValue.forEach((value, keys) -> copy.keysByValue.put(value, new ArrayList<>(keys)));
+        copy.valueByKey.putAll(valueByKey);
+        keysByBigram.forEach((bigram, keys) -> copy.keysByBigram.put(bigram, new HashSet<>(keys)));
+        return copy;
+    }
+
+    /**
+     * 归一化值：全角字符转半角，中文标点转英文标点，英文字母转小写，
+     * 英文单词间连续的空白合并为一个空格，其他空白删除
+     *
+     * @param value 值
+     * @return 归一化的值
+     */
+    public static String normalize(String value) {
+        StringBuilder sb = new StringBuilder(value.length());
+        boolean prevIsWhiteSpace = false;
+        for (int i = 0; i < value.length(); i++) {
+            char ch = toHalfWidth(value.charAt(i));
+            if (Character.isWhitespace(ch)) {
+                prevIsWhiteSpace = true;
+                continue;
+            }
+            if (prevIsWhiteSpace && sb.length() > 0 && sb.charAt(sb.length() - 1) < 0x80 && ch < 0x80) {
+                sb.append(' ');
+            }
+            prevIsWhiteSpace = false;
+            sb.append(CharacterUtils.isUpperCase(ch) ? (char) (ch + ('a' - 'A')) : ch);
+        }
+        return sb.toString();
+    }
+
+    private static char toHalfWidth(char ch) {
+        if (ch >= '！' && ch <= '～') {
+            return (char) (ch - 0xFEE0);
+        }
+        switch (ch) {
+            case '　':
+                return ' ';
+            case '。':
+                return '.';
+            case '、':
+                return ',';
+            case '“':
+            case '”':
+            case '「':
+            case '」':
+                return '"';
+            case '‘':
+            case '’':
+                return '\'';
+            case '【':
+                return '[';
+            case '】':
+                return ']';
+            default:
+                return ch;
+        }
+    }
+
+    /**
+     * 相邻两个字符组成的二元组，忽略空格
+     */
+    private static Set<Integer> bigrams(String normalized) {
+        Set<Integer> bigrams = new HashSet<>();
+        char prev = 0;
+        for (int i = 0; i < normalized.length(); i++) {
+            char ch = normalized.charAt(i);
+            if (ch == ' ') continue;
+            if (prev != 0) {
+                bigrams.add((prev << 16) | ch);
+            }
+            prev = ch;
+        }
+        return bigrams;
+    }
+
+    /**
+     * 归一化的值，不可变，索引的副本可以共用
+     */
+    @AllArgsConstructor
+    private static class IndexedValue {
+        private final String normalized;
+        /** 不同的二元组个数，计算相似度时不用重新拆分 */
+        private final int bigramCount;
+    }
+}
@@ -1,24 +1,37 @@
 package com.ganguo.java.plugin.util;
 
 import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.TextRange;
 import com.intellij.psi.PsiAnnotation;
 import com.intellij.psi.PsiClass;
 import com.intellij.psi.PsiComment;
+import com.intellij.psi.PsiDocumentManager;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiElementFactory;
+import com.intellij.psi.PsiFile;
 import com.intellij.psi.PsiJavaFile;
 import com.intellij.psi.PsiMethod;
 import com.intellij.psi.PsiModifier;
 import com.intellij.psi.PsiModifierList;
 import com.intellij.psi.codeStyle.CodeStyleManager;
+import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.beanutils.ConvertUtils;
 import org.apache.commons.lang3.StringUtils;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+@Slf4j
 public class PsiUtils {
 
     public static PsiClass getClassByFile(PsiJavaFile file) {
@@ -30,7 +43,7 @@ public class PsiUtils {
     }
 
     /**
-     * 格式化代码
+     * 格式化整个元素，元素较大时很慢，新插入的代码请使用{@link WriteActions#reformat(PsiElement...)}
      */
     public static void reformatJavaFile(PsiElement theElement) {
         if (theElement == null) {
@@ -46,6 +59,73 @@ public class PsiUtils {
         });
     }
 
+    /**
+     * 只格式化元素所在的范围，需在写操作中调用
+     *
+     * @param elements 需要格式化的元素，可以来自不同的文件
+     */
+    public static void reformatElements(Collection<? extends PsiElement> elements) {
+        elements.stream()
+                .filter(Objects::nonNull)
+                .filter(PsiElement::isValid)
+                .collect(Collectors.groupingBy(PsiElement::getContainingFile, LinkedHashMap::new, Collectors.toList()))
+                .forEach(PsiUtils::reformatElements);
+    }
+
+    /**
+     * 只格式化元素所在的范围，需在写操作中调用
+     *
+     * @param file     元素所在的文件
+     * @param elements 需要格式化的元素
+     */
+    public static void reformatElements(PsiFile file, Collection<? extends PsiElement> elements) {
+        List<TextRange> ranges = mergeRanges(elements.stream()
+                .filter(Objects::nonNull)
+                .filter(PsiElement::isValid)
+                .map(PsiElement::getTextRange)
+                .collect(Collectors.toList()));
+        if (file == null || ranges.isEmpty()) {
+            return;
+        }
+
+        Project project = file.getProject();
+        PsiDocumentManager documentManager = PsiDocumentManager.getInstance(project);
+        Document document = documentManager.getDocument(file);
+        if (document != null) {
+            documentManager.doPostponedOperationsAndUnblockDocument(document);
+        }
+
+        try {
+            CodeStyleManager.getInstance(project).reformatText(file, ranges);
+        } catch (Exception e) {
+            log.error("reformat {} fail", file.getName(), e);
+        }
+    }
+
+    /**
+     * 合并重叠或相邻的范围，结果按起始位置排序
+     */
+    private static List<TextRange> mergeRanges(List<TextRange> ranges) {
+        ranges.sort(Comparator.comparingInt(TextRange::getStartOffset));
+
+        List<TextRange> merged = new ArrayList<>(ranges.size());
+        TextRange current = null;
+        for (TextRange range : ranges) {
+            if (current == null) {
+                current = range;
+            } else if (range.getStartOffset() <= current.getEndOffset()) {
+                current = current.union(range);
+            } else {
+                merged.add(current);
+                current = range;
+            }
+        }
+        if (current != null) {
+            merged.add(current);
+        }
+        return merged;
+    }
+
     /**
      * 创建文档注释
      *
@@ -0,0 +1,46 @@
+package com.ganguo.java.plugin.util;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 限制请求频率，按固定间隔给每个请求分配发送时间，不限制并发数
+ */
+public class RateLimiter {
+
+    private final long intervalNanos;
+    /** 下一个请求最早的发送时间 */
+    private long nextTime;
+
+    /**
+     * @param permitsPerSecond 每秒最多的请求数
+     */
+    public RateLimiter(double permitsPerSecond) {
+        if (permitsPerSecond <= 0) {
+            throw new IllegalArgumentException("permitsPerSecond必须大于0");
+        }
+        intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond);
+        nextTime = System.nanoTime();
+    }
+
+    /**
+     * 预约一次请求的发送时间
+     *
+     * @return 需要等待的毫秒数
+     */
+    public synchronized long reserve() {
+        long now = System.nanoTime();
+        long time = nextTime - now > 0 ? nextTime : now;
+        nextTime = time + intervalNanos;
+        return TimeUnit.NANOSECONDS.toMillis(time - now);
+    }
+
+    /**
+     * 等待到可以发送请求
+     */
+    public void acquire() throws InterruptedException {
+        long wait = reserve();
+        if (wait > 0) {
+            Thread.sleep(wait);
+        }
+    }
+}
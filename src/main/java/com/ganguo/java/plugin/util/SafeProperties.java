@@ -1,15 +1,25 @@
 package com.ganguo.java.plugin.util;
 
-import java.io.BufferedReader;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.util.text.StringUtil;
+
 import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.function.BiConsumer;
 
 public class SafeProperties extends Properties {
     private static final long serialVersionUID = 5011694856722313621L;
@@ -22,154 +32,217 @@ public class SafeProperties extends Properties {
 
     private static final String whiteSpaceChars = " \t\r\n\f";
 
+    /** Character class flags, see {@link #CHAR_CLASSES} */
+    private static final byte CLASS_WHITE_SPACE = 1;
+    private static final byte CLASS_SEPARATOR = 1 << 1;
+    private static final byte CLASS_STRICT_SEPARATOR = 1 << 2;
+
+    /** Lookup table of the character classes of the ASCII characters */
+    private static final byte[] CHAR_CLASSES = new byte[128];
+
+    static {
+        for (int i = 0; i < whiteSpaceChars.length(); i++)
+            CHAR_CLASSES[whiteSpaceChars.charAt(i)] |= CLASS_WHITE_SPACE;
+        for (int i = 0; i < keyValueSeparators.length(); i++)
+            CHAR_CLASSES[keyValueSeparators.charAt(i)] |= CLASS_SEPARATOR;
+        for (int i = 0; i < strictKeyValueSeparators.length(); i++)
+            CHAR_CLASSES[strictKeyValueSeparators.charAt(i)] |= CLASS_STRICT_SEPARATOR;
+    }
+
+    private static boolean isCharClass(char c, byte charClass) {
+        return c < CHAR_CLASSES.length && (CHAR_CLASSES[c] & charClass) != 0;
+    }
+
     private PropertiesContext context = new PropertiesContext();
 
+    /** Index of the keys by value, built on first use and kept in sync by put and remove */
+    private transient PropertiesValueIndex valueIndex;
+
     public PropertiesContext getContext() {
         return context;
     }
 
-    public synchronized void load(InputStream inStream) throws IOException {
+    /**
+     * Returns a deep copy with the same lines, pending changes and value index, changing
+     * or patching the copy does not affect this properties
+     */
+    public synchronized SafeProperties copy() {
+        SafeProperties copy = new SafeProperties();
+        context.copyTo(copy.context);
+        forEach(copy::putValue);
+        if (valueIndex != null) {
+            copy.valueIndex = valueIndex.copy();
+        }
+        return copy;
+    }
 
-        BufferedReader in;
-
-        in = new BufferedReader(new InputStreamReader(inStream, "8859_1"));
-        while (true) {
-            // Get next line
-            String line = in.readLine();
-            // intract property/comment string
-            String intactLine = line;
-            if (line == null)
-                return;
-
-            if (line.length() > 0) {
-
-                // Find start of key
-                int len = line.length();
-                int keyStart;
-                for (keyStart = 0; keyStart < len; keyStart++)
-                    if (whiteSpaceChars.indexOf(line.charAt(keyStart)) == -1)
-                        break;
-
-                // Blank lines are ignored
-                if (keyStart == len)
-                    continue;
-
-                // Continue lines that end in slashes if they are not comments
-                char firstChar = line.charAt(keyStart);
-
-                if ((firstChar != '#') && (firstChar != '!')) {
-                    while (continueLine(line)) {
-                        String nextLine = in.readLine();
-                        intactLine = intactLine + "\n" + nextLine;
-                        if (nextLine == null)
-                            nextLine = "";
-                        String loppedLine = line.substring(0, len - 1);
-                        // Advance beyond whitespace on new line
-                        int startIndex;
-                        for (startIndex = 0; startIndex < nextLine.length(); startIndex++)
-                            if (whiteSpaceChars.indexOf(nextLine.charAt(startIndex)) == -1)
-                                break;
-                        nextLine = nextLine.substring(startIndex, nextLine.length());
-                        line = new String(loppedLine + nextLine);
-                        len = line.length();
-                    }
+    /**
+     * @return the index of the keys by their normalized values
+     */
+    public synchronized PropertiesValueIndex getValueIndex() {
+        if (valueIndex == null) {
+            PropertiesValueIndex index = new PropertiesValueIndex();
+            forEach((key, value) -> index.put(key.toString(), value.toString()));
+            valueIndex = index;
+        }
+        return valueIndex;
+    }
 
-                    // Find separation between key and value
-                    int separatorIndex;
-                    for (separatorIndex = keyStart; separatorIndex < len; separatorIndex++) {
-                        char currentChar = line.charAt(separatorIndex);
-                        if (currentChar == '\\')
-                            separatorIndex++;
-                        else if (keyValueSeparators.indexOf(currentChar) != -1)
-                            break;
-                    }
+    public synchronized void load(InputStream inStream) throws IOException {
+        load(new InputStreamReader(inStream, StandardCharsets.ISO_8859_1));
+    }
 
-                    // Skip over whitespace after key if any
-                    int valueIndex;
-                    for (valueIndex = separatorIndex; valueIndex < len; valueIndex++)
-                        if (whiteSpaceChars.indexOf(line.charAt(valueIndex)) == -1)
-                            break;
-
-                    // Skip over one non whitespace key value separators if any
-                    if (valueIndex < len)
-                        if (strictKeyValueSeparators.indexOf(line.charAt(valueIndex)) != -1)
-                            valueIndex++;
-
-                    // Skip over white space after other separators if any
-                    while (valueIndex < len) {
-                        if (whiteSpaceChars.indexOf(line.charAt(valueIndex)) == -1)
-                            break;
-                        valueIndex++;
-                    }
-                    String key = line.substring(keyStart, separatorIndex);
-                    String value = (separatorIndex < len) ? line.substring(valueIndex, len) : "";
+    /**
+     * Parses the properties in a single pass over a reusable char buffer, the comments and
+     * the intact lines are memorized in the {@link PropertiesContext}
+     */
+    public synchronized void load(Reader reader) throws IOException {
+        context.loading = true;
+        try {
+            parse(new LineReader(reader), new LineHandler() {
+                @Override
+                public void comment(LineReader in) {
+                    //memorize the comment string, even the string is empty
+                    context.addCommentLine(in.intactLine());
+                }
 
-                    // Convert then store key and value
-                    key = loadConvert(key);
-                    value = loadConvert(value);
+                @Override
+                public void entry(String key, String value, LineReader in) {
                     //memorize the property also with the whold string
-                    put(key, value, intactLine);
-                } else {
-                    //memorize the comment string
-                    context.addCommentLine(intactLine);
+                    put(key, value, in.intactLine(), in.lineNumber, in.lineCount());
                 }
-            } else {
-                //memorize the string even the string is empty
-                context.addCommentLine(intactLine);
+            });
+        } finally {
+            context.loading = false;
+        }
+    }
+
+    /**
+     * Scans the keys and values only, without memorizing the lines, for callers which
+     * do not modify or write back the properties, e.g. indexers
+     *
+     * @param action called for each key and value in the order of the source, a duplicate
+     *               key is passed again with the later value
+     */
+    public static void scan(Reader reader, BiConsumer<String, String> action) throws IOException {
+        parse(new LineReader(reader), new LineHandler() {
+            @Override
+            public void comment(LineReader in) {
+            }
+
+            @Override
+            public void entry(String key, String value, LineReader in) {
+                action.accept(key, value);
+            }
+        });
+    }
+
+    private static void parse(LineReader in, LineHandler handler) throws IOException {
+        StringBuilder convertBuffer = new StringBuilder();
+
+        while (in.readLine()) {
+            char[] line = in.line;
+            int len = in.lineLength;
+
+            if (len == 0) {
+                handler.comment(in);
+                continue;
+            }
+
+            // Find start of key
+            int keyStart = skipWhiteSpace(line, 0, len);
+
+            // Blank lines are ignored
+            if (keyStart == len)
+                continue;
+
+            char firstChar = line[keyStart];
+            if ((firstChar == '#') || (firstChar == '!')) {
+                handler.comment(in);
+                continue;
+            }
+
+            // Continue lines that end in slashes if they are not comments
+            while (in.isContinued()) {
+                if (!in.readContinuedLine())
+                    break;
+            }
+            line = in.line;
+            len = in.lineLength;
+
+            // Find separation between key and value
+            int separatorIndex;
+            for (separatorIndex = keyStart; separatorIndex < len; separatorIndex++) {
+                char currentChar = line[separatorIndex];
+                if (currentChar == '\\')
+                    separatorIndex++;
+                else if (isCharClass(currentChar, CLASS_SEPARATOR))
+                    break;
             }
+            separatorIndex = Math.min(separatorIndex, len);
+
+            // Skip over whitespace after key if any
+            int valueIndex = skipWhiteSpace(line, separatorIndex, len);
+
+            // Skip over one non whitespace key value separators if any
+            if (valueIndex < len && isCharClass(line[valueIndex], CLASS_STRICT_SEPARATOR))
+                valueIndex++;
+
+            // Skip over white space after other separators if any
+            valueIndex = skipWhiteSpace(line, valueIndex, len);
+
+            // Convert then store key and value
+            String key = loadConvert(line, keyStart, separatorIndex, convertBuffer);
+            String value = (separatorIndex < len) ? loadConvert(line, valueIndex, len, convertBuffer) : "";
+
+            handler.entry(key, value, in);
         }
     }
 
+    private static int skipWhiteSpace(char[] line, int from, int end) {
+        int index = from;
+        while (index < end && isCharClass(line[index], CLASS_WHITE_SPACE))
+            index++;
+        return index;
+    }
+
+    /**
+     * Converts an escaped properties value (as it would appear after the
+     * separator in a .properties file) back to its original form.
+     *
+     * @throws IllegalArgumentException if the value contains a malformed
+     *                                  &#92;uxxxx encoding
+     */
+    public static String unescape(String value) {
+        char[] chars = value.toCharArray();
+        return loadConvert(chars, 0, chars.length, new StringBuilder(chars.length));
+    }
+
     /*
      * Converts encoded &#92;uxxxx to unicode chars and changes special saved
      * chars to their original forms
      */
-    private String loadConvert(String theString) {
+    private static String loadConvert(char[] in, int start, int end, StringBuilder outBuffer) {
         char aChar;
-        int len = theString.length();
-        StringBuffer outBuffer = new StringBuffer(len);
+        outBuffer.setLength(0);
 
-        for (int x = 0; x < len; ) {
-            aChar = theString.charAt(x++);
+        for (int x = start; x < end; ) {
+            aChar = in[x++];
             if (aChar == '\\') {
-                aChar = theString.charAt(x++);
+                // A trailing slash has nothing to escape
+                if (x == end)
+                    break;
+                aChar = in[x++];
                 if (aChar == 'u') {
+                    if (x + 4 > end)
+                        throw new IllegalArgumentException("Malformed \\uxxxx encoding.");
                     // Read the xxxx
                     int value = 0;
                     for (int i = 0; i < 4; i++) {
-                        aChar = theString.charAt(x++);
-                        switch (aChar) {
-                            case '0':
-                            case '1':
-                            case '2':
-                            case '3':
-                            case '4':
-                            case '5':
-                            case '6':
-                            case '7':
-                            case '8':
-                            case '9':
-                                value = (value << 4) + aChar - '0';
-                                break;
-                            case 'a':
-                            case 'b':
-                            case 'c':
-                            case 'd':
-                            case 'e':
-                            case 'f':
-                                value = (value << 4) + 10 + aChar - 'a';
-                                break;
-                            case 'A':
-                            case 'B':
-                            case 'C':
-                            case 'D':
-                            case 'E':
-                            case 'F':
-                                value = (value << 4) + 10 + aChar - 'A';
-                                break;
-                            default:
-                                throw new IllegalArgumentException("Malformed \\uxxxx encoding.");
-                        }
+                        int digit = hexValue(in[x++]);
+                        if (digit == -1)
+                            throw new IllegalArgumentException("Malformed \\uxxxx encoding.");
+                        value = (value << 4) + digit;
                     }
                     outBuffer.append((char) value);
                 } else {
@@ -201,6 +274,20 @@ public class SafeProperties extends Properties {
         return outBuffer.toString();
     }
 
+    /**
+     * @return the value of an ASCII hex digit, -1 for any other character including
+     * the full-width and other Unicode digits
+     */
+    private static int hexValue(char c) {
+        if (c >= '0' && c <= '9')
+            return c - '0';
+        if (c >= 'a' && c <= 'f')
+            return c - 'a' + 10;
+        if (c >= 'A' && c <= 'F')
+            return c - 'A' + 10;
+        return -1;
+    }
+
     public synchronized void store(OutputStream out, String header) throws IOException {
         BufferedWriter awriter;
         awriter = new BufferedWriter(new OutputStreamWriter(out, "8859_1"));
@@ -220,14 +307,6 @@ public class SafeProperties extends Properties {
         bw.newLine();
     }
 
-    private boolean continueLine(String line) {
-        int slashCount = 0;
-        int index = line.length() - 1;
-        while ((index >= 0) && (line.charAt(index--) == '\\'))
-            slashCount++;
-        return (slashCount % 2 == 1);
-    }
-
     /*
      * Converts unicodes to encoded &#92;uxxxx and writes out any of the
      * characters in specialSaveChars with a preceding slash
@@ -298,59 +377,313 @@ public class SafeProperties extends Properties {
 
     public synchronized Object put(Object key, Object value) {
         context.putOrUpdate(key.toString(), value.toString());
-        return super.put(key, value);
+        return putValue(key, value);
     }
 
     public synchronized Object put(Object key, Object value, String line) {
         context.putOrUpdate(key.toString(), value.toString(), line);
+        return putValue(key, value);
+    }
+
+    private Object put(String key, String value, String line, int lineNumber, int lineCount) {
+        context.putOrUpdate(context.new PropertyEntry(key, value, line, lineNumber, lineCount));
+        return putValue(key, value);
+    }
+
+    /**
+     * Returns the first line (0-based) of the key in the source the properties were
+     * read from, or -1 if the key was not read from the source or was put since.
+     */
+    public synchronized int getSourceLine(String key) {
+        PropertiesContext.PropertyEntry pe = context.entryMap.get(key);
+        return pe == null || pe.added ? -1 : pe.lineNumber;
+    }
+
+    private Object putValue(Object key, Object value) {
+        if (valueIndex != null) {
+            valueIndex.put(key.toString(), value.toString());
+        }
         return super.put(key, value);
     }
 
 
     public synchronized Object remove(Object key) {
         context.remove(key.toString());
+        if (valueIndex != null) {
+            valueIndex.remove(key.toString());
+        }
         return super.remove(key);
     }
 
     class PropertiesContext {
         private List<Object> commentOrEntrys = new ArrayList<>();
 
+        /** Index of the entries by key, so that putting a new key does not scan the whole list */
+        private Map<String, PropertyEntry> entryMap = new HashMap<>();
+
+        /** Entries read from the source that were removed since the last load or patch */
+        private List<PropertyEntry> removedEntries = new ArrayList<>();
+
+        /** Entries put since the last load or patch */
+        private List<PropertyEntry> addedEntries = new ArrayList<>();
+
+        /** Modification stamp of the source the lines were read from, -1 if unknown */
+        private long sourceStamp = -1;
+
+        /** Set if lines which can not be patched were added, e.g. comments */
+        private boolean structureChanged;
+
+        private boolean loading;
+
+        /** Incremented when an entry is put or removed after loading */
+        private int changeCount;
+
+        /** Edits computed by {@link #preparePatch()}, valid while changeCount equals preparedChangeCount */
+        private List<LineEdit> preparedEdits;
+        private int preparedChangeCount;
+
+        /**
+         * Copies the lines, the entries and the pending changes to the empty context of another properties
+         */
+        private void copyTo(PropertiesContext target) {
+            Map<PropertyEntry, PropertyEntry> copies = new IdentityHashMap<>();
+            for (Object obj : commentOrEntrys) {
+                if (obj instanceof PropertyEntry) {
+                    PropertyEntry pe = target.copyOf((PropertyEntry) obj);
+                    copies.put((PropertyEntry) obj, pe);
+                    target.entryMap.put(pe.key, pe);
+                    obj = pe;
+                }
+                target.commentOrEntrys.add(obj);
+            }
+            for (PropertyEntry pe : removedEntries) {
+                target.removedEntries.add(target.copyOf(pe));
+            }
+            for (PropertyEntry pe : addedEntries) {
+                target.addedEntries.add(copies.get(pe));
+            }
+            target.sourceStamp = sourceStamp;
+            target.structureChanged = structureChanged;
+        }
+
+        private PropertyEntry copyOf(PropertyEntry pe) {
+            PropertyEntry copy = new PropertyEntry(pe.key, pe.value, pe.line, pe.lineNumber, pe.lineCount);
+            copy.added = pe.added;
+            return copy;
+        }
+
         public List<Object> getCommentOrEntrys() {
             return commentOrEntrys;
         }
 
         public void addCommentLine(String line) {
             commentOrEntrys.add(line);
+            if (!loading) {
+                structureChanged = true;
+            }
+        }
+
+        public long getSourceStamp() {
+            return sourceStamp;
+        }
+
+        /**
+         * @param sourceStamp modification stamp of the document the properties were loaded from
+         */
+        public void setSourceStamp(long sourceStamp) {
+            this.sourceStamp = sourceStamp;
+        }
+
+        /**
+         * @return true if the changes can be written with {@link #patch(Document)}
+         */
+        public boolean isPatchable(Document document) {
+            return sourceStamp != -1 && !structureChanged &&
+                    sourceStamp == document.getModificationStamp();
+        }
+
+        /**
+         * Writes the entries added, updated or removed since the last load or patch to the
+         * document by inserting or deleting their lines only
+         *
+         * @param document the document the properties were loaded from
+         * @return false if the document has changed since, the whole content must be stored instead
+         */
+        public boolean patch(Document document) {
+            if (!isPatchable(document)) {
+                return false;
+            }
+
+            List<LineEdit> edits = preparedEdits != null && preparedChangeCount == changeCount ?
+                    preparedEdits : createEdits();
+            preparedEdits = null;
+
+            renumber(edits);
+
+            // lines inserted minus deleted before the current source line
+            int delta = 0;
+            int currentLine = -1;
+            int currentDelta = 0;
+            int currentInserted = 0;
+            for (LineEdit edit : edits) {
+                if (edit.line != currentLine) {
+                    delta += currentDelta;
+                    currentDelta = 0;
+                    currentInserted = 0;
+                    currentLine = edit.line;
+                }
+
+                if (edit.entry == null) {
+                    deleteLines(document, edit.line + delta, -edit.lineDelta);
+                } else {
+                    // after the deleted lines and the entries inserted at the same line
+                    int line = edit.line + delta + currentInserted;
+                    if (edit.line == -1 || line >= document.getLineCount()) {
+                        edit.entry.lineNumber = appendLine(document, edit.text);
+                    } else {
+                        document.insertString(document.getLineStartOffset(line), edit.text + "\n");
+                        edit.entry.lineNumber = line;
+                    }
+                    edit.entry.lineCount = edit.lineDelta;
+                    edit.entry.added = false;
+                    currentInserted += edit.lineDelta;
+                }
+                currentDelta += edit.lineDelta;
+            }
+
+            removedEntries.clear();
+            addedEntries.clear();
+            sourceStamp = document.getModificationStamp();
+            return true;
+        }
+
+        /**
+         * Computes the line edits of the changes since the last load or patch without touching
+         * the document, so that a following {@link #patch(Document)} in the UI thread only applies
+         * them. Changes made after preparing are picked up by computing the edits again
+         */
+        public void preparePatch() {
+            preparedEdits = createEdits();
+            preparedChangeCount = changeCount;
+        }
+
+        private List<LineEdit> createEdits() {
+            List<LineEdit> edits = new ArrayList<>(removedEntries.size() + addedEntries.size());
+            for (PropertyEntry pe : removedEntries) {
+                edits.add(new LineEdit(pe.lineNumber, -pe.lineCount, null, null));
+            }
+            for (PropertyEntry pe : addedEntries) {
+                String text = pe.toString();
+                if (text != null) {
+                    edits.add(new LineEdit(pe.lineNumber, StringUtil.countNewLines(text) + 1, pe, text));
+                }
+            }
+            // deletions go before the insertions of the same line, so an updated entry keeps its place
+            edits.sort(Comparator.<LineEdit>comparingInt(edit -> edit.line == -1 ? Integer.MAX_VALUE : edit.line)
+                    .thenComparingInt(edit -> edit.entry == null ? 0 : 1));
+            return edits;
+        }
+
+        /**
+         * Shifts the line numbers of the unchanged entries by the lines inserted or deleted before them
+         */
+        private void renumber(List<LineEdit> edits) {
+            int[] lines = new int[edits.size()];
+            int[] deltas = new int[edits.size()];
+            int count = 0;
+            int delta = 0;
+            for (LineEdit edit : edits) {
+                if (edit.line == -1) continue;
+                delta += edit.lineDelta;
+                lines[count] = edit.line;
+                deltas[count] = delta;
+                count++;
+            }
+            if (count == 0) return;
+
+            for (PropertyEntry pe : entryMap.values()) {
+                if (pe.lineNumber == -1 || pe.added) continue;
+                // the last edit before the line of this entry
+                int index = Arrays.binarySearch(lines, 0, count, pe.lineNumber);
+                index = index >= 0 ? index - 1 : -index - 2;
+                if (index >= 0) {
+                    pe.lineNumber += deltas[index];
+                }
+            }
+        }
+
+        private void deleteLines(Document document, int line, int lineCount) {
+            int start = document.getLineStartOffset(line);
+            int end;
+            if (line + lineCount < document.getLineCount()) {
+                end = document.getLineStartOffset(line + lineCount);
+            } else {
+                // the last line has no line break, remove the one before it
+                end = document.getTextLength();
+                start = Math.max(0, start - 1);
+            }
+            document.deleteString(start, end);
+        }
+
+        private int appendLine(Document document, String text) {
+            CharSequence chars = document.getCharsSequence();
+            int length = chars.length();
+            if (length > 0 && chars.charAt(length - 1) != '\n') {
+                document.insertString(length, "\n" + text + "\n");
+                return document.getLineNumber(length + 1);
+            }
+            document.insertString(length, text + "\n");
+            return document.getLineNumber(length);
         }
 
         public void putOrUpdate(PropertyEntry pe) {
             remove(pe.getKey());
             commentOrEntrys.add(pe);
+            entryMap.put(pe.getKey(), pe);
+            if (!loading) {
+                pe.lineNumber = -1;
+                pe.added = true;
+                addedEntries.add(pe);
+                changeCount++;
+            }
         }
 
         public void putOrUpdate(String key, String value, String line) {
-            PropertyEntry pe = new PropertyEntry(key, value, line);
-            remove(key);
-            commentOrEntrys.add(pe);
+            putOrUpdate(new PropertyEntry(key, value, line));
         }
 
         public void putOrUpdate(String key, String value) {
             PropertyEntry pe = new PropertyEntry(key, value);
+            // an updated entry is written at the line of the old one
+            PropertyEntry old = entryMap.get(key);
+            pe.lineNumber = old == null ? -1 : old.lineNumber;
+            pe.added = true;
+
             int index = remove(key);
             commentOrEntrys.add(index, pe);
+            entryMap.put(key, pe);
+            addedEntries.add(pe);
+            changeCount++;
         }
 
         public int remove(String key) {
-            for (int index = 0; index < commentOrEntrys.size(); index++) {
-                Object obj = commentOrEntrys.get(index);
-                if (obj instanceof PropertyEntry) {
-                    if (key.equals(((PropertyEntry) obj).getKey())) {
-                        commentOrEntrys.remove(obj);
-                        return index;
-                    }
-                }
+            PropertyEntry pe = entryMap.remove(key);
+            if (pe == null) {
+                return commentOrEntrys.size();
             }
-            return commentOrEntrys.size();
+            int index = commentOrEntrys.indexOf(pe);
+            commentOrEntrys.remove(index);
+
+            // a duplicate key replaced while loading keeps its line in the source
+            if (pe.added) {
+                addedEntries.remove(pe);
+            } else if (!loading && pe.lineNumber != -1) {
+                removedEntries.add(pe);
+            }
+            if (!loading) {
+                changeCount++;
+            }
+            return index;
         }
 
         class PropertyEntry {
@@ -360,6 +693,18 @@ public class SafeProperties extends Properties {
 
             private String line;
 
+            /**
+             * The first line of the entry in the source, for added entries it is the line to
+             * insert at, -1 for the end of the source
+             */
+            private int lineNumber = -1;
+
+            /** Number of the lines of the entry in the source */
+            private int lineCount;
+
+            /** Whether the entry is added since the last load or patch */
+            private boolean added;
+
             public String getLine() {
                 return line;
             }
@@ -383,6 +728,20 @@ public class SafeProperties extends Properties {
                 this.line = line;
             }
 
+            PropertyEntry(String key, String value, String line, int lineNumber, int lineCount) {
+                this(key, value, line);
+                this.lineNumber = lineNumber;
+                this.lineCount = lineCount;
+            }
+
+            public int getLineNumber() {
+                return lineNumber;
+            }
+
+            public int getLineCount() {
+                return lineCount;
+            }
+
             public String getKey() {
                 return key;
             }
@@ -413,6 +772,155 @@ public class SafeProperties extends Properties {
         }
     }
 
+    /**
+     * Receives the logical lines parsed by {@link #parse(LineReader, LineHandler)}
+     */
+    private interface LineHandler {
+        /**
+         * A comment or an empty line
+         */
+        void comment(LineReader in);
+
+        void entry(String key, String value, LineReader in);
+    }
+
+    /**
+     * Lines to insert or delete when patching the source document
+     */
+    private static class LineEdit {
+        /** Line in the source, -1 for the end of the source */
+        private final int line;
+        /** Number of the lines inserted, negative for deleted */
+        private final int lineDelta;
+        /** Entry to insert, null for a deletion */
+        private final PropertiesContext.PropertyEntry entry;
+        /** Text of the entry to insert */
+        private final String text;
+
+        LineEdit(int line, int lineDelta, PropertiesContext.PropertyEntry entry, String text) {
+            this.line = line;
+            this.lineDelta = lineDelta;
+            this.entry = entry;
+            this.text = text;
+        }
+    }
+
+    /**
+     * Reads the physical lines of the properties from a reusable char buffer, joining the
+     * continued lines into one logical line without creating intermediate strings
+     */
+    private static class LineReader {
+        private final Reader reader;
+        private final char[] buffer = new char[8192];
+        private int position;
+        private int limit;
+        private boolean skipLineFeed;
+
+        /** The logical line, continued lines are joined without the trailing slash and leading whitespace */
+        private char[] line = new char[1024];
+        private int lineLength;
+
+        /** The first physical line of the logical line, starts from 0 */
+        private int lineNumber;
+
+        /** Number of the physical lines read */
+        private int physicalLineCount;
+
+        /** The intact lines, joined with '\n' */
+        private final StringBuilder intactLine = new StringBuilder(1024);
+
+        LineReader(Reader reader) {
+            this.reader = reader;
+        }
+
+        /**
+         * Reads the next physical line as a new logical line
+         *
+         * @return false if the end of the stream is reached
+         */
+        boolean readLine() throws IOException {
+            lineNumber = physicalLineCount;
+            lineLength = 0;
+            intactLine.setLength(0);
+            return readPhysicalLine(false);
+        }
+
+        /**
+         * Appends the next physical line to the current logical line
+         *
+         * @return false if the end of the stream is reached
+         */
+        boolean readContinuedLine() throws IOException {
+            // drop the slash
+            lineLength--;
+            int intactLength = intactLine.length();
+            intactLine.append('\n');
+            if (readPhysicalLine(true))
+                return true;
+            intactLine.setLength(intactLength);
+            return false;
+        }
+
+        /**
+         * @return true if the logical line ends in an odd number of slashes
+         */
+        boolean isContinued() {
+            int slashCount = 0;
+            int index = lineLength - 1;
+            while ((index >= 0) && (line[index--] == '\\'))
+                slashCount++;
+            return (slashCount % 2 == 1);
+        }
+
+        String intactLine() {
+            return intactLine.toString();
+        }
+
+        int lineCount() {
+            return physicalLineCount - lineNumber;
+        }
+
+        private boolean readPhysicalLine(boolean skipLeadingWhiteSpace) throws IOException {
+            boolean hasChar = false;
+            while (true) {
+                if (position >= limit) {
+                    limit = reader.read(buffer, 0, buffer.length);
+                    position = 0;
+                    if (limit <= 0) {
+                        limit = 0;
+                        if (hasChar)
+                            physicalLineCount++;
+                        return hasChar;
+                    }
+                }
+
+                char c = buffer[position++];
+                if (skipLineFeed) {
+                    skipLineFeed = false;
+                    if (c == '\n')
+                        continue;
+                }
+                hasChar = true;
+
+                if (c == '\n' || c == '\r') {
+                    skipLineFeed = c == '\r';
+                    physicalLineCount++;
+                    return true;
+                }
+
+                intactLine.append(c);
+                if (skipLeadingWhiteSpace) {
+                    if (isCharClass(c, CLASS_WHITE_SPACE))
+                        continue;
+                    skipLeadingWhiteSpace = false;
+                }
+                if (lineLength == line.length)
+                    line = Arrays.copyOf(line, line.length * 2);
+                line[lineLength++] = c;
+            }
+        }
+    }
+
     /**
      * @param comment
      */
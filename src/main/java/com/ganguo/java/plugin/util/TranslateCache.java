@@ -0,0 +1,186 @@
+package com.ganguo.java.plugin.util;
+
+import com.intellij.openapi.application.PathManager;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 翻译结果缓存，所有项目共用，最近使用的结果保存在内存中，同时追加到IDE系统目录下的文件中，重启后和离线时也能使用。
+ * 文件中依次记录源语言、目标语言、原文和译文，记录数超过内存容量的两倍时按内存中的内容重写
+ */
+@Slf4j
+public class TranslateCache {
+
+    /** 文件格式版本，格式改变时忽略旧文件 */
+    private static final int VERSION = 1;
+
+    /** 内存中最多缓存的结果数 */
+    private static final int MAX_SIZE = 5000;
+
+    private static final char KEY_SEPARATOR = '\0';
+
+    private final File file;
+    private final Map<String, String> cache = new LinkedHashMap<String, String>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+            return size() > MAX_SIZE;
+        }
+    };
+
+    private boolean loaded;
+    /** 文件中的记录数 */
+    private int fileRecordCount;
+    private DataOutputStream output;
+
+    public static TranslateCache getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    TranslateCache(File file) {
+        this.file = file;
+    }
+
+    /**
+     * 获取缓存的译文
+     *
+     * @return 没有缓存时返回null
+     */
+    @Nullable
+    public synchronized String get(String from, String to, String text) {
+        load();
+        return cache.get(getKey(from, to, text));
+    }
+
+    /**
+     * 缓存译文，同时追加到文件中
+     */
+    public synchronized void put(String from, String to, String text, String result) {
+        load();
+        String key = getKey(from, to, text);
+        if (result.equals(cache.put(key, result))) return;
+
+        try {
+            if (fileRecordCount >= MAX_SIZE * 2) {
+                rewrite();
+            } else {
+                writeRecord(getOutput(), from, to, text, result);
+                output.flush();
+                fileRecordCount++;
+            }
+        } catch (IOException e) {
+            log.warn("write translate cache fail", e);
+            close();
+        }
+    }
+
+    /**
+     * 关闭文件，下次写入时重新打开
+     */
+    public synchronized void close() {
+        if (output == null) return;
+        try {
+            output.close();
+        } catch (IOException e) {
+            log.warn("close translate cache fail", e);
+        }
+        output = null;
+    }
+
+    private static String getKey(String from, String to, String text) {
+        return from + KEY_SEPARATOR + to + KEY_SEPARATOR + text;
+    }
+
+    /**
+     * 读取文件，后面的记录覆盖前面的，只读取一次。
+     * IDE启动时在后台线程调用，避免第一次翻译时在界面线程中读取文件
+     */
+    public synchronized void load() {
+        if (loaded) return;
+        loaded = true;
+        if (!file.isFile()) return;
+
+        boolean broken = false;
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (input.readInt() != VERSION) {
+                broken = true;
+            } else {
+                while (input.available() > 0) {
+                    cache.put(getKey(input.readUTF(), input.readUTF(), input.readUTF()), input.readUTF());
+                    fileRecordCount++;
+                }
+            }
+        } catch (IOException e) {
+            // 上次写入中断时最后一条记录不完整，保留已读取的部分
+            log.warn("read translate cache fail", e);
+            broken = true;
+        }
+
+        if (broken || fileRecordCount >= MAX_SIZE * 2) {
+            try {
+                rewrite();
+            } catch (IOException e) {
+                log.warn("rewrite translate cache fail", e);
+            }
+        }
+    }
+
+    /**
+     * 按内存中的内容重写文件，去掉重复和已淘汰的记录
+     */
+    private void rewrite() throws IOException {
+        close();
+        File temp = new File(file.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+            out.writeInt(VERSION);
+            for (Map.Entry<String, String> entry : cache.entrySet()) {
+                String[] parts = entry.getKey().split(String.valueOf(KEY_SEPARATOR), 3);
+                writeRecord(out, parts[0], parts[1], parts[2], entry.getValue());
+            }
+        }
+        if (!file.delete() && file.exists() || !temp.renameTo(file)) {
+            throw new IOException("rename " + temp + " fail");
+        }
+        fileRecordCount = cache.size();
+    }
+
+    private DataOutputStream getOutput() throws IOException {
+        if (output == null) {
+            boolean exists = file.isFile();
+            if (!exists) {
+                File parent = file.getParentFile();
+                if (!parent.isDirectory() && !parent.mkdirs()) {
+                    throw new IOException("mkdirs " + parent + " fail");
+                }
+            }
+            output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file, true)));
+            if (!exists) {
+                output.writeInt(VERSION);
+            }
+        }
+        return output;
+    }
+
+    private static void writeRecord(DataOutputStream out, String from, String to, String text, String result)
+            throws IOException {
+        out.writeUTF(from);
+        out.writeUTF(to);
+        out.writeUTF(text);
+        out.writeUTF(result);
+    }
+
+    private static class Holder {
+        private static final TranslateCache INSTANCE = new TranslateCache(
+                new File(PathManager.getSystemPath(), "ganguo/translate.cache"));
+    }
+}
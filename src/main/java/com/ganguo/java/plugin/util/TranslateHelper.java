@@ -1,43 +1,59 @@
 package com.ganguo.java.plugin.util;
 
+import com.ganguo.java.plugin.service.GlossaryService;
 import com.ganguo.java.plugin.service.SettingService;
-import com.intellij.codeInsight.hint.HintManager;
+import com.ganguo.java.plugin.translate.BaiduTranslator;
+import com.ganguo.java.plugin.translate.GlossaryTranslator;
+import com.ganguo.java.plugin.translate.Translator;
 import com.intellij.openapi.components.ServiceManager;
 import com.intellij.openapi.project.Project;
-import org.apache.commons.codec.digest.DigestUtils;
+import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
-import org.apache.http.HttpStatus;
-import org.json.JSONObject;
 
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Objects;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
 
 /**
- * 翻译工具类
+ * 翻译工具类，按顺序使用各个翻译器，前一个无法翻译的短语交给下一个。
+ * 项目中先查术语表，不需要网络，术语表中没有的再调用百度翻译，没有设置百度翻译时只使用术语表
  */
+@Slf4j
 public class TranslateHelper {
-    private static final String URL = "http://api.fanyi.baidu.com/api/trans/vip/translate";
-    private static final int MAX_TEXT_BYTES_LENGTH = 6000;
 
-    private final String appId;
-    private final String secret;
+    private final List<Translator> translators;
 
     public TranslateHelper(String appId, String secret) {
-        this.appId = appId;
-        this.secret = secret;
-        if (StringUtils.isEmpty(appId) || StringUtils.isEmpty(secret)) {
-            throw new RuntimeException("百度翻译应用ID和密钥不能为空");
-        }
+        this(Collections.singletonList(new BaiduTranslator(appId, secret)));
     }
 
+    /**
+     * 项目的翻译器，总是使用术语表，设置了百度翻译应用ID和密钥时再使用百度翻译
+     */
     public TranslateHelper(Project project) {
+        translators = new ArrayList<>(2);
+        translators.add(new GlossaryTranslator(GlossaryService.getInstance(project).getGlossary()));
+
         SettingService settingService = ServiceManager.getService(project, SettingService.class);
-        appId = settingService.getTranslateAppId();
-        secret = settingService.getTranslateSecret();
-        if (StringUtils.isEmpty(appId) || StringUtils.isEmpty(secret)) {
-            throw new RuntimeException("百度翻译应用ID和密钥不能为空");
+        String appId = settingService.getTranslateAppId();
+        String secret = settingService.getTranslateSecret();
+        if (StringUtils.isNotEmpty(appId) && StringUtils.isNotEmpty(secret)) {
+            translators.add(new BaiduTranslator(appId, secret));
+        }
+    }
+
+    /**
+     * @param translators 翻译器，按顺序使用
+     */
+    public TranslateHelper(List<Translator> translators) {
+        if (translators.isEmpty()) {
+            throw new IllegalArgumentException("translators不能为空");
         }
+        this.translators = translators;
     }
 
     /**
@@ -50,6 +66,26 @@ public class TranslateHelper {
         return translate(text, "zh", "en");
     }
 
+    /**
+     * 异步中文转英文
+     *
+     * @param text 中文字符串
+     * @return 英文字符串，取消时中止请求
+     */
+    public CompletableFuture<String> zh2EnAsync(String text) throws Exception {
+        return translateAsync(text, "zh", "en");
+    }
+
+    /**
+     * 异步批量中文转英文
+     *
+     * @param texts 中文短语
+     * @return 和texts一一对应的英文，取消时中止所有请求
+     */
+    public CompletableFuture<List<String>> zh2EnAllAsync(List<String> texts) throws Exception {
+        return translateAllAsync(texts, "zh", "en");
+    }
+
     /**
      * 翻译
      * 语言列表参考http://api.fanyi.baidu.com/api/trans/product/apidoc
@@ -60,34 +96,122 @@ public class TranslateHelper {
      * @return 结果文本
      */
     public String translate(String text, String from, String to) throws Exception {
-        if (StringUtils.isEmpty(text)) {
-            return text;
+        return HttpClientUtils.await(translateAsync(text, from, to), null);
+    }
+
+    /**
+     * 异步翻译，在后台线程池中请求，不阻塞调用的线程
+     *
+     * @param text 待翻译文本(UTF-8编码)
+     * @param from 源语言，auto为自动检测
+     * @param to   目标语言
+     * @return 结果文本，取消时中止请求
+     */
+    public CompletableFuture<String> translateAsync(String text, String from, String to) throws Exception {
+        CompletableFuture<List<String>> future = translateAllAsync(Collections.singletonList(text), from, to);
+        return map(future, results -> results.get(0));
+    }
+
+    /**
+     * 异步批量翻译，依次交给各个翻译器，翻译器失败时它的短语交给下一个，所有翻译器都无法翻译的短语保留原文
+     *
+     * @param texts 待翻译的短语
+     * @param from  源语言，auto为自动检测
+     * @param to    目标语言
+     * @return 和texts一一对应的结果，有翻译器失败且没有翻译出任何短语时整体失败，取消时中止请求
+     */
+    public CompletableFuture<List<String>> translateAllAsync(List<String> texts, String from, String to)
+            throws Exception {
+        CompletableFuture<List<String>> result = new CompletableFuture<>();
+        // 正在进行的翻译，取消结果时同时取消
+        AtomicReference<Future<?>> current = new AtomicReference<>();
+        result.whenComplete((list, e) -> {
+            Future<?> future = current.get();
+            if (result.isCancelled() && future != null) {
+                future.cancel(true);
+            }
+        });
+
+        List<String> results = new ArrayList<>(texts);
+        List<Integer> indexes = new ArrayList<>(texts.size());
+        for (int i = 0; i < texts.size(); i++) {
+            indexes.add(i);
+        }
+        translateNext(0, results, indexes, from, to, result, current, null);
+        return result;
+    }
+
+    /**
+     * 用第translatorIndex个翻译器翻译前面的翻译器无法翻译的短语
+     *
+     * @param results 结果，无法翻译的保留原文
+     * @param indexes 还没翻译的短语的下标
+     * @param error   前面的翻译器中第一个失败的异常
+     */
+    private void translateNext(int translatorIndex, List<String> results, List<Integer> indexes,
+                               String from, String to, CompletableFuture<List<String>> result,
+                               AtomicReference<Future<?>> current, Throwable error) {
+        if (indexes.isEmpty() || translatorIndex == translators.size()) {
+            // 一个短语都没有翻译时，把失败的原因告诉调用者
+            if (error != null && indexes.size() == results.size()) {
+                result.completeExceptionally(error);
+            } else {
+                result.complete(results);
+            }
+            return;
         }
-        if (text.getBytes().length > MAX_TEXT_BYTES_LENGTH) {
-            throw new IllegalArgumentException("文本不能超过6000个字节");
+
+        List<String> texts = new ArrayList<>(indexes.size());
+        for (int index : indexes) {
+            texts.add(results.get(index));
         }
-        String salt = getSalt();
-        Map<String, String> params = new HashMap<>();
-        params.put("q", text);
-        params.put("from", Objects.requireNonNull(from));
-        params.put("to", Objects.requireNonNull(to));
-        params.put("appid", appId);
-        params.put("salt", salt);
-        params.put("sign", getSign(text, salt));
-
-        HttpClientUtils.HttpClientResult response = HttpClientUtils.doGet(URL, params);
-        if (response.getCode() == HttpStatus.SC_OK) {
-            return new JSONObject(response.getContent()).getJSONArray("trans_result")
-                    .getJSONObject(0).getString("dst");
+
+        CompletableFuture<List<String>> future;
+        try {
+            future = translators.get(translatorIndex).translateAllAsync(texts, from, to);
+        } catch (Exception e) {
+            log.warn("translate fail", e);
+            translateNext(translatorIndex + 1, results, indexes, from, to, result, current,
+                    error != null ? error : e);
+            return;
+        }
+        current.set(future);
+        if (result.isCancelled()) {
+            future.cancel(true);
+            return;
         }
-        throw new Exception("翻译失败 response: " + response);
-    }
 
-    private String getSign(String text, String salt) {
-        return DigestUtils.md5Hex(appId + text + salt + secret);
+        future.whenComplete((translated, e) -> {
+            if (result.isDone()) return;
+            if (e != null) {
+                log.warn("translate fail", e);
+                translateNext(translatorIndex + 1, results, indexes, from, to, result, current,
+                        error != null ? error : e);
+                return;
+            }
+            List<Integer> remaining = new ArrayList<>();
+            for (int i = 0; i < indexes.size(); i++) {
+                String text = translated.get(i);
+                if (text != null) {
+                    results.set(indexes.get(i), text);
+                } else {
+                    remaining.add(indexes.get(i));
+                }
+            }
+            translateNext(translatorIndex + 1, results, remaining, from, to, result, current, error);
+        });
     }
 
-    private String getSalt() {
-        return String.valueOf(System.currentTimeMillis());
+    /**
+     * 转换异步结果，取消转换后的结果时同时取消原来的
+     */
+    private static <T, R> CompletableFuture<R> map(CompletableFuture<T> future, Function<T, R> mapper) {
+        CompletableFuture<R> result = future.thenApply(mapper);
+        result.whenComplete((value, e) -> {
+            if (result.isCancelled()) {
+                future.cancel(true);
+            }
+        });
+        return result;
     }
 }
@@ -2,13 +2,17 @@ package com.ganguo.java.plugin.util;
 
 import com.intellij.openapi.command.WriteCommandAction;
 import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiElement;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
 
 public class WriteActions {
     private final Project project;
     private final List<Runnable> tasks = new LinkedList<>();
+    private final List<PsiElement> reformatElements = new ArrayList<>();
 
     public WriteActions(Project project) {
         this.project = project;
@@ -19,16 +23,31 @@ public class WriteActions {
         return this;
     }
 
+    /**
+     * 延迟格式化元素所在的范围，在{@link #run()}的写命令最后统一格式化，同一文件只格式化一次。
+     * 可以在任务中调用，用于格式化任务中新插入的元素
+     *
+     * @param elements 需要格式化的元素
+     */
+    public WriteActions reformat(PsiElement... elements) {
+        reformatElements.addAll(Arrays.asList(elements));
+        return this;
+    }
+
     public WriteActions clear() {
         tasks.clear();
+        reformatElements.clear();
         return this;
     }
 
     public void run() {
-        if (!tasks.isEmpty()) {
+        if (!tasks.isEmpty() || !reformatElements.isEmpty()) {
             WriteCommandAction.runWriteCommandAction(project, () -> {
                 tasks.forEach(Runnable::run);
                 tasks.clear();
+
+                PsiUtils.reformatElements(reformatElements);
+                reformatElements.clear();
             });
         }
     }
@@ -0,0 +1,59 @@
+package com.ganguo.java.plugin.sql;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class KeywordSetTests {
+
+    @Test
+    public void testIgnoreCase() {
+        KeywordSet keywords = new KeywordSet(Arrays.asList("SELECT", "from", "Where", "select"));
+        assertEquals(3, keywords.size());
+        assertTrue(keywords.contains("select"));
+        assertTrue(keywords.contains("FROM"));
+        assertTrue(keywords.contains("wHeRe"));
+        assertFalse(keywords.contains("selec"));
+        assertFalse(keywords.contains("selects"));
+        assertFalse(keywords.contains(""));
+    }
+
+    @Test
+    public void testRange() {
+        KeywordSet keywords = new KeywordSet(Arrays.asList("insert", "into"));
+        String text = "`INSERT` INTO`";
+        assertTrue(keywords.contains(text, 1, 7));
+        assertTrue(keywords.contains(text, 9, 13));
+        assertFalse(keywords.contains(text, 0, 7));
+        assertFalse(keywords.contains(text, 9, 14));
+    }
+
+    @Test
+    public void testCollisions() {
+        // "a_"和"b@"的哈希值相同，组合出的单词哈希值都相同
+        List<String> words = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            words.add(((i & 4) == 0 ? "a_" : "b@") + ((i & 2) == 0 ? "a_" : "b@") +
+                    ((i & 1) == 0 ? "a_" : "b@"));
+        }
+        KeywordSet keywords = new KeywordSet(words.subList(0, 7));
+        assertEquals(7, keywords.size());
+        for (String word : words.subList(0, 7)) {
+            assertTrue(word, keywords.contains(word.toUpperCase()));
+        }
+        assertFalse(keywords.contains(words.get(7)));
+    }
+
+    @Test
+    public void testNonAscii() {
+        KeywordSet keywords = new KeywordSet(Arrays.asList("key"));
+        assertFalse(keywords.contains("ｋｅｙ"));
+        assertFalse(keywords.contains("KEYİ"));
+    }
+}
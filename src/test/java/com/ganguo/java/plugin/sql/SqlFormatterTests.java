@@ -0,0 +1,124 @@
+package com.ganguo.java.plugin.sql;
+
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SqlFormatterTests {
+
+    @Test
+    public void testInsert() {
+        assertEquals("INSERT INTO `user`\n" +
+                        "(`id`, `name`, `phone`        )\n" +
+                        "VALUES\n" +
+                        "(   1, '小明' , '13414850000'  ),\n" +
+                        "(   2, 'Jack', '8613414850001');",
+                SqlFormatter.format("INSERT INTO `user` (id,name, `phone`) VALUES " +
+                        "(1,'小明','13414850000'),\n(2, 'Jack','8613414850001');"));
+    }
+
+    @Test
+    public void testInsertWidth() {
+        // 中文按1.665个字符宽度计算，四舍五入
+        assertEquals("insert into t\n" +
+                        "(`a`         , `b`    )\n" +
+                        "values\n" +
+                        "('中文中文中文', f(1, 2)),\n" +
+                        "('abc'       ,    NULL);",
+                SqlFormatter.format("insert into t (a, b) values ('中文中文中文', f(1, 2)), ('abc', NULL);"));
+    }
+
+    @Test
+    public void testInsertWithComment() {
+        // 注释不能保留，不格式化
+        String sql = "insert into t (a, b) values (1, 'x'), -- c\n (2, 'y');";
+        assertEquals(sql, SqlFormatter.format(sql));
+
+        // 值和字段中的注释
+        sql = "insert into t (a, b) values (1 -- one\n, 'a'), (22, 'b');";
+        assertEquals(sql, SqlFormatter.format(sql));
+        sql = "insert into t (`id` -- pk\n, `name`) values (1, 'a');";
+        assertEquals(sql, SqlFormatter.format(sql));
+        sql = "insert into t (a, b) values (1 /* one */, 'a'), (22, 'b');";
+        assertEquals(sql, SqlFormatter.format(sql));
+    }
+
+    @Test
+    public void testCreateTable() {
+        assertEquals("create table `user` (\n" +
+                        "  `id`   bigint(20)  not null auto_increment comment 'ID',\n" +
+                        "  `name` varchar(64) not null default ''     comment '名称',\n" +
+                        "  primary key (`id`)\n" +
+                        ") engine=InnoDB comment='用户';",
+                SqlFormatter.format("create table `user` (`id` bigint(20) not null auto_increment comment 'ID', " +
+                        "`name` varchar(64)  not null default '' comment '名称',\nprimary key (`id`)) " +
+                        "engine=InnoDB comment='用户';"));
+    }
+
+    @Test
+    public void testCreateTableLike() {
+        String sql = "create table a like b;";
+        assertEquals(sql, SqlFormatter.format(sql));
+    }
+
+    @Test
+    public void testAlterTable() {
+        assertEquals("ALTER TABLE db.`user`\n" +
+                        "    ADD COLUMN    `phone` varchar(20) NOT NULL DEFAULT '' COMMENT '手机',\n" +
+                        "    MODIFY COLUMN `name`  varchar(64) NOT NULL            COMMENT '名称',\n" +
+                        "    ADD INDEX `idx_phone` (`phone`);",
+                SqlFormatter.format("ALTER TABLE db.`user` ADD COLUMN `phone` varchar(20) NOT NULL DEFAULT '' " +
+                        "COMMENT '手机', MODIFY COLUMN `name` varchar(64) NOT NULL COMMENT '名称', " +
+                        "ADD INDEX `idx_phone` (`phone`);"));
+
+        // 只有一个修改项时不格式化
+        String sql = "alter table t add column a int;";
+        assertEquals(sql, SqlFormatter.format(sql));
+    }
+
+    @Test
+    public void testUpdate() {
+        assertEquals("UPDATE `user`\n" +
+                        "SET `name`  = '小明',\n" +
+                        "    `phone` = '13414850000'\n" +
+                        "WHERE `id` = 1;",
+                SqlFormatter.format("UPDATE `user` SET `name` = '小明', `phone`='13414850000' WHERE `id` = 1;"));
+
+        // 只修改一个字段时不格式化
+        String sql = "update `user` set `name` = 'a' where id = 1;";
+        assertEquals(sql, SqlFormatter.format(sql));
+    }
+
+    @Test
+    public void testStatements() {
+        String sql = "-- 用户\nupdate t set a = 1, b = 2;\nselect 1;\nupdate t set a = 1";
+        assertEquals("-- 用户\nupdate t\nset a = 1,\n    b = 2;\nselect 1;\nupdate t set a = 1",
+                SqlFormatter.format(sql));
+    }
+
+    @Test
+    public void testFormatEdits() {
+        String sql = "select 1;\nupdate t set a = 1, b = 2;";
+        List<SqlEdit> edits = SqlFormatter.formatEdits(sql, 0, sql.length(), null);
+        assertEquals(1, edits.size());
+        SqlEdit edit = edits.get(0);
+        // 只替换有变化的部分
+        assertTrue(edit.getStart() > sql.indexOf("update"));
+        assertEquals("update t\nset a = 1,\n    b = 2;",
+                sql.substring(sql.indexOf("update"), edit.getStart()) + edit.getReplacement() +
+                        sql.substring(edit.getEnd()));
+    }
+
+    @Test
+    public void testFormatEditsWithFormatters() {
+        String sql = "update t set a = 1, b = 2;\ninsert into t (a) values (1), (22);";
+        List<SqlEdit> edits = SqlFormatter.formatEdits(sql, 0, sql.length(), null,
+                Collections.singletonList(new InsertFormatter()));
+        assertEquals(1, edits.size());
+        assertTrue(edits.get(0).getStart() > sql.indexOf("insert"));
+    }
+}
@@ -0,0 +1,91 @@
+package com.ganguo.java.plugin.sql;
+
+import com.ganguo.java.plugin.sql.SqlLexer.TokenType;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SqlLexerTests {
+
+    /**
+     * 分词，空白以外的记号按“类型:文本”返回
+     */
+    private static List<String> tokens(String text) {
+        List<String> tokens = new ArrayList<>();
+        SqlLexer lexer = new SqlLexer(text);
+        TokenType type;
+        while ((type = lexer.next()) != null) {
+            if (type != TokenType.WHITE_SPACE) {
+                tokens.add(type + ":" + text.substring(lexer.getTokenStart(), lexer.getTokenEnd()));
+            }
+        }
+        return tokens;
+    }
+
+    @Test
+    public void testWordsAndSymbols() {
+        assertEquals(Arrays.asList("WORD:select", "WORD:a_1", "SYMBOL:,", "WORD:$b", "WORD:名称",
+                "SYMBOL:(", "WORD:10", "SYMBOL:)", "SYMBOL:;"),
+                tokens("select a_1, $b 名称(10);"));
+    }
+
+    @Test
+    public void testLineComments() {
+        assertEquals(Arrays.asList("LINE_COMMENT:-- a", "WORD:x", "LINE_COMMENT:# b", "WORD:y",
+                "LINE_COMMENT:--"),
+                tokens("-- a\nx # b\r\ny --"));
+        // --后面不是空白时不是注释
+        assertEquals(Arrays.asList("WORD:a", "SYMBOL:-", "SYMBOL:-", "WORD:1"), tokens("a--1"));
+    }
+
+    @Test
+    public void testBlockComments() {
+        assertEquals(Arrays.asList("WORD:a", "BLOCK_COMMENT:/* b\n*/", "WORD:c"), tokens("a/* b\n*/c"));
+        // 未闭合时到文本末尾
+        assertEquals(Arrays.asList("WORD:a", "BLOCK_COMMENT:/* b;"), tokens("a /* b;"));
+        assertEquals(Arrays.asList("WORD:a", "BLOCK_COMMENT:/* b *"), tokens("a /* b *"));
+    }
+
+    @Test
+    public void testStrings() {
+        assertEquals(Arrays.asList("STRING:'it''s'", "STRING:'a\\'b'", "STRING:\"-- c\"", "SYMBOL:;"),
+                tokens("'it''s' 'a\\'b' \"-- c\";"));
+        // 未闭合时到文本末尾
+        assertEquals(Arrays.asList("WORD:a", "STRING:'b;"), tokens("a 'b;"));
+    }
+
+    @Test
+    public void testQuotedIdentifiers() {
+        assertEquals(Arrays.asList("QUOTED_IDENTIFIER:`a``b`", "SYMBOL:.", "QUOTED_IDENTIFIER:`c d`"),
+                tokens("`a``b`.`c d`"));
+        // 反引号中反斜杠不转义
+        assertEquals(Arrays.asList("QUOTED_IDENTIFIER:`a\\`", "WORD:b"), tokens("`a\\` b"));
+    }
+
+    @Test
+    public void testRange() {
+        String text = "xx select 1 yy";
+        SqlLexer lexer = new SqlLexer(text, 3, 11);
+        assertEquals(TokenType.WORD, lexer.next());
+        assertTrue(lexer.isWord("select"));
+        assertEquals(TokenType.WHITE_SPACE, lexer.next());
+        assertTrue(lexer.isWhiteSpaceOrComment());
+        assertEquals(TokenType.WORD, lexer.next());
+        assertEquals(10, lexer.getTokenStart());
+        assertEquals(11, lexer.getTokenEnd());
+        assertEquals(null, lexer.next());
+    }
+
+    @Test
+    public void testRegionMatches() {
+        assertTrue(SqlLexer.regionMatches("xInSeRt", 1, 7, "insert"));
+        assertFalse(SqlLexer.regionMatches("xInSeRt", 1, 6, "insert"));
+        assertFalse(SqlLexer.regionMatches("update", 0, 6, "insert"));
+    }
+}
@@ -0,0 +1,48 @@
+package com.ganguo.java.plugin.translate;
+
+import org.apache.commons.lang3.StringUtils;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class BaiduTranslatorTests {
+
+    @Test
+    public void testPack() {
+        assertEquals(Collections.emptyList(), BaiduTranslator.pack(Collections.emptyList()));
+        assertEquals(Collections.singletonList(Arrays.asList("a", "b")),
+                BaiduTranslator.pack(Arrays.asList("a", "b")));
+    }
+
+    @Test
+    public void testPackBoundary() {
+        // 2999 + 1 + 3000 正好6000字节
+        String a = StringUtils.repeat('a', 2999);
+        String b = StringUtils.repeat('中', 1000);
+        String c = "c";
+        List<List<String>> chunks = BaiduTranslator.pack(Arrays.asList(a, b, c));
+        assertEquals(Arrays.asList(Arrays.asList(a, b), Collections.singletonList(c)), chunks);
+
+        // 多一个字节放不下
+        String a2 = a + "a";
+        assertEquals(Arrays.asList(Collections.singletonList(a2), Arrays.asList(b, c)),
+                BaiduTranslator.pack(Arrays.asList(a2, b, c)));
+    }
+
+    @Test
+    public void testPackMaxLength() {
+        String max = StringUtils.repeat('中', 2000);
+        assertEquals(Arrays.asList(Collections.singletonList("a"), Collections.singletonList(max),
+                Collections.singletonList("b")),
+                BaiduTranslator.pack(Arrays.asList("a", max, "b")));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testPackTooLong() {
+        BaiduTranslator.pack(Collections.singletonList(StringUtils.repeat('中', 2000) + "a"));
+    }
+}
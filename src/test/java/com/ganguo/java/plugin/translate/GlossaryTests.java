@@ -0,0 +1,73 @@
+package com.ganguo.java.plugin.translate;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class GlossaryTests {
+
+    @Test
+    public void testParse() {
+        Glossary glossary = Glossary.parse("# 注释\n" +
+                "启用 = enable\r\n" +
+                "\n" +
+                "状态=status\n" +
+                "没有等号\n" +
+                "=空术语\n" +
+                "空译文=\n" +
+                "启用=enabled\n");
+        assertEquals(2, glossary.size());
+        // 重复的术语以后面的为准
+        assertEquals("enabled", glossary.translate("启用"));
+        assertEquals("status", glossary.translate("状态"));
+        assertNull(glossary.translate("没有等号"));
+        assertNull(glossary.translate("# 注释"));
+    }
+
+    @Test
+    public void testEmpty() {
+        assertEquals(0, Glossary.EMPTY.size());
+        assertNull(Glossary.EMPTY.translate("状态"));
+        assertNull(Glossary.parse("").translate("状态"));
+    }
+
+    @Test
+    public void testLongestMatch() {
+        Glossary glossary = Glossary.parse("礼品=gift\n礼品卡=gift card\n卡=card\n课程=course\n普通=normal");
+        assertEquals("gift card", glossary.translate("礼品卡"));
+        assertEquals("gift card card", glossary.translate("礼品卡卡"));
+        assertEquals("normal gift card course", glossary.translate(" 普通礼品卡 课程"));
+        // 更长的匹配失败时使用已匹配的最长术语
+        assertEquals("gift course", glossary.translate("礼品课程"));
+    }
+
+    @Test
+    public void testUntranslatable() {
+        Glossary glossary = Glossary.parse("礼品=gift\n礼品卡=gift card");
+        // 有不是术语的部分时返回null
+        assertNull(glossary.translate("礼品券"));
+        assertNull(glossary.translate("礼"));
+        assertNull(glossary.translate("普通礼品"));
+        assertNull(glossary.translate("  "));
+    }
+
+    @Test
+    public void testManyChildren() {
+        // 子节点乱序插入后仍能二分查找
+        StringBuilder text = new StringBuilder();
+        for (char ch = 'z'; ch >= 'a'; ch -= 2) {
+            text.append('x').append(ch).append('=').append(ch).append('\n');
+        }
+        for (char ch = 'a'; ch <= 'z'; ch += 2) {
+            text.append('x').append(ch).append('=').append(ch).append('\n');
+        }
+        Glossary glossary = Glossary.parse(text);
+        assertEquals(26, glossary.size());
+        for (char ch = 'a'; ch <= 'z'; ch++) {
+            assertEquals(String.valueOf(ch), glossary.translate("x" + ch));
+        }
+        assertNull(glossary.translate("x"));
+        assertNull(glossary.translate("x0"));
+    }
+}
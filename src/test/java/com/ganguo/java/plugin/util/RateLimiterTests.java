@@ -0,0 +1,46 @@
+package com.ganguo.java.plugin.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class RateLimiterTests {
+
+    @Test
+    public void testReserve() {
+        RateLimiter limiter = new RateLimiter(10);
+        // 第一个请求不用等待，之后每个请求间隔100毫秒
+        assertEquals(0, limiter.reserve());
+        for (int i = 1; i <= 5; i++) {
+            long wait = limiter.reserve();
+            assertTrue("wait: " + wait, wait > i * 100 - 20 && wait <= i * 100);
+        }
+    }
+
+    @Test
+    public void testAcquire() throws InterruptedException {
+        RateLimiter limiter = new RateLimiter(20);
+        long start = System.nanoTime();
+        for (int i = 0; i < 4; i++) {
+            limiter.acquire();
+        }
+        long elapsed = (System.nanoTime() - start) / 1000000;
+        assertTrue("elapsed: " + elapsed, elapsed >= 140);
+    }
+
+    @Test
+    public void testIdle() throws InterruptedException {
+        RateLimiter limiter = new RateLimiter(10);
+        limiter.reserve();
+        // 空闲超过间隔后不用等待，也不会积累许可
+        Thread.sleep(150);
+        assertEquals(0, limiter.reserve());
+        assertTrue(limiter.reserve() > 50);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testIllegalRate() {
+        new RateLimiter(0);
+    }
+}
@@ -0,0 +1,385 @@
+package com.ganguo.java.plugin.util;
+
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.editor.impl.DocumentImpl;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class SafePropertiesTests {
+
+    private static SafeProperties load(String text) throws IOException {
+        SafeProperties properties = new SafeProperties();
+        properties.load(new StringReader(text));
+        return properties;
+    }
+
+    /**
+     * 和FileUtils.loadProperties一样从文档读取，记录文档的修改时间
+     */
+    private static SafeProperties load(Document document) throws IOException {
+        SafeProperties properties = load(document.getText());
+        properties.getContext().setSourceStamp(document.getModificationStamp());
+        return properties;
+    }
+
+    private static Document document(String text) {
+        return new DocumentImpl(text, true);
+    }
+
+    private static void patch(SafeProperties properties, Document document) {
+        assertTrue(properties.getContext().patch(document));
+    }
+
+    private static String store(SafeProperties properties) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        properties.store(out, null);
+        return new String(out.toByteArray(), StandardCharsets.ISO_8859_1)
+                .replace(System.lineSeparator(), "\n");
+    }
+
+    private static SafeProperties reload(SafeProperties properties) throws IOException {
+        SafeProperties reloaded = new SafeProperties();
+        reloaded.load(new ByteArrayInputStream(store(properties).getBytes(StandardCharsets.ISO_8859_1)));
+        return reloaded;
+    }
+
+    @Test
+    public void testEscapes() throws IOException {
+        SafeProperties properties = load("key\\ with\\:colon = a\\tb\\u4E2d\\\\\\n\n" +
+                "\\#hash=\\=\\!\n" +
+                "empty\n");
+        assertEquals("a\tb中\\\n", properties.getProperty("key with:colon"));
+        assertEquals("=!", properties.getProperty("#hash"));
+        assertEquals("", properties.getProperty("empty"));
+    }
+
+    @Test
+    public void testEscapesRoundTrip() throws IOException {
+        SafeProperties properties = new SafeProperties();
+        properties.put("key with:colon", " a\tb中\\\r\n#!");
+        properties.put("异常", "错误=1");
+
+        SafeProperties reloaded = reload(properties);
+        assertEquals(" a\tb中\\\r\n#!", reloaded.getProperty("key with:colon"));
+        assertEquals("错误=1", reloaded.getProperty("异常"));
+        assertEquals(2, reloaded.size());
+    }
+
+    @Test
+    public void testUnescape() {
+        assertEquals("é中", SafeProperties.unescape("\\u00e9\\u4E2D"));
+        assertEquals("a b", SafeProperties.unescape("a\\ b"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFullWidthHexDigit() {
+        SafeProperties.unescape("\\u\uFF11234");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testArabicIndicHexDigit() throws IOException {
+        load("a=\\u\u0661234\n");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testShortUnicodeEscape() throws IOException {
+        load("a=\\u12\n");
+    }
+
+    @Test
+    public void testContinuationLines() throws IOException {
+        String text = "a = one \\\n" +
+                "    two \\\n" +
+                "\tthree\n" +
+                "b=2\n";
+        SafeProperties properties = load(text);
+        assertEquals("one two three", properties.getProperty("a"));
+        assertEquals("2", properties.getProperty("b"));
+        assertEquals(0, properties.getSourceLine("a"));
+        assertEquals(3, properties.getSourceLine("b"));
+        assertEquals(text, store(properties));
+    }
+
+    @Test
+    public void testEscapedSlashIsNotContinuation() throws IOException {
+        SafeProperties properties = load("a=x\\\\\nb=2");
+        assertEquals("x\\", properties.getProperty("a"));
+        assertEquals("2", properties.getProperty("b"));
+    }
+
+    @Test
+    public void testComments() throws IOException {
+        String text = "# comment\n" +
+                "! other comment\n" +
+                "\n" +
+                "   # indented = not a key\n" +
+                "a=1\n";
+        SafeProperties properties = load(text);
+        assertEquals(1, properties.size());
+        assertNull(properties.getProperty("# indented"));
+        assertEquals(4, properties.getSourceLine("a"));
+        assertEquals(text, store(properties));
+    }
+
+    @Test
+    public void testCrLf() throws IOException {
+        SafeProperties properties = load("# comment\r\na=1\r\nb = two \\\r\n  lines\r\n\r\nc=3\r\n");
+        assertEquals("1", properties.getProperty("a"));
+        assertEquals("two lines", properties.getProperty("b"));
+        assertEquals("3", properties.getProperty("c"));
+        assertEquals(1, properties.getSourceLine("a"));
+        assertEquals(2, properties.getSourceLine("b"));
+        assertEquals(5, properties.getSourceLine("c"));
+        assertEquals("# comment\na=1\nb = two \\\n  lines\n\nc=3\n", store(properties));
+    }
+
+    @Test
+    public void testCrOnly() throws IOException {
+        SafeProperties properties = load("a=1\rb=2\r");
+        assertEquals("1", properties.getProperty("a"));
+        assertEquals(1, properties.getSourceLine("b"));
+    }
+
+    @Test
+    public void testTrailingBackslashAtEof() throws IOException {
+        SafeProperties properties = load("a=1\nb=value\\");
+        assertEquals("value", properties.getProperty("b"));
+        assertEquals(1, properties.getSourceLine("b"));
+        assertEquals("a=1\nb=value\\\n", store(properties));
+
+        properties = load("key\\");
+        assertEquals("", properties.getProperty("key"));
+    }
+
+    @Test
+    public void testLongLine() throws IOException {
+        StringBuilder value = new StringBuilder();
+        for (int i = 0; i < 10000; i++) {
+            value.append((char) ('a' + i % 26));
+        }
+        SafeProperties properties = load("a=" + value + "\nb=2\n");
+        assertEquals(value.toString(), properties.getProperty("a"));
+        assertEquals("2", properties.getProperty("b"));
+        assertTrue(store(properties).endsWith("\nb=2\n"));
+    }
+
+    @Test
+    public void testPatchAdd() throws IOException {
+        Document document = document("# comment\na=1\nb=2\n");
+        SafeProperties properties = load(document);
+        properties.put("c", "3");
+        properties.put("d", "中");
+        patch(properties, document);
+        assertEquals("# comment\na=1\nb=2\nc=3\nd=\\u4E2D\n", document.getText());
+        assertEquals(3, properties.getSourceLine("c"));
+        assertEquals(4, properties.getSourceLine("d"));
+    }
+
+    @Test
+    public void testPatchUpdate() throws IOException {
+        Document document = document("a=1\nb=2\nc=3\n");
+        SafeProperties properties = load(document);
+        properties.put("b", "x");
+        patch(properties, document);
+        assertEquals("a=1\nb=x\nc=3\n", document.getText());
+        assertEquals(1, properties.getSourceLine("b"));
+        assertEquals(2, properties.getSourceLine("c"));
+
+        // 再次修改时使用更新后的行号
+        properties.put("c", "y");
+        properties.put("a", "z");
+        patch(properties, document);
+        assertEquals("a=z\nb=x\nc=y\n", document.getText());
+    }
+
+    @Test
+    public void testPatchRemove() throws IOException {
+        Document document = document("a=1\nb=2\nc=3\nd=4\n");
+        SafeProperties properties = load(document);
+        properties.remove("a");
+        properties.remove("c");
+        patch(properties, document);
+        assertEquals("b=2\nd=4\n", document.getText());
+        assertEquals(0, properties.getSourceLine("b"));
+        assertEquals(1, properties.getSourceLine("d"));
+
+        properties.remove("d");
+        properties.put("e", "5");
+        patch(properties, document);
+        assertEquals("b=2\ne=5\n", document.getText());
+    }
+
+    @Test
+    public void testPatchAddedThenRemoved() throws IOException {
+        Document document = document("a=1\n");
+        SafeProperties properties = load(document);
+        properties.put("b", "2");
+        properties.remove("b");
+        patch(properties, document);
+        assertEquals("a=1\n", document.getText());
+    }
+
+    @Test
+    public void testPatchDuplicateKey() throws IOException {
+        Document document = document("a=1\nb=2\na=3\n");
+        SafeProperties properties = load(document);
+        assertEquals("3", properties.getProperty("a"));
+        assertEquals(2, properties.getSourceLine("a"));
+
+        // 读取时被覆盖的重复键不能当作删除，否则修改其他键时会删掉它所在的行
+        properties.put("c", "4");
+        patch(properties, document);
+        assertEquals("a=1\nb=2\na=3\nc=4\n", document.getText());
+
+        properties.put("a", "x");
+        patch(properties, document);
+        assertEquals("a=1\nb=2\na=x\nc=4\n", document.getText());
+    }
+
+    @Test
+    public void testPatchNoTrailingNewline() throws IOException {
+        Document document = document("a=1\nb=2");
+        SafeProperties properties = load(document);
+        properties.put("c", "3");
+        patch(properties, document);
+        assertEquals("a=1\nb=2\nc=3\n", document.getText());
+
+        document = document("a=1\nb=2");
+        properties = load(document);
+        properties.put("b", "x");
+        patch(properties, document);
+        assertEquals("a=1\nb=x\n", document.getText());
+
+        document = document("a=1\nb=2");
+        properties = load(document);
+        properties.remove("b");
+        patch(properties, document);
+        assertEquals("a=1", document.getText());
+    }
+
+    @Test
+    public void testPatchContinuationLines() throws IOException {
+        Document document = document("a=one \\\n  two\nb=2 \\\n  3\nc=4\n");
+        SafeProperties properties = load(document);
+        assertEquals(2, properties.getSourceLine("b"));
+
+        properties.put("a", "x");
+        patch(properties, document);
+        assertEquals("a=x\nb=2 \\\n  3\nc=4\n", document.getText());
+        assertEquals(1, properties.getSourceLine("b"));
+        assertEquals(3, properties.getSourceLine("c"));
+
+        properties.remove("b");
+        properties.put("c", "y");
+        patch(properties, document);
+        assertEquals("a=x\nc=y\n", document.getText());
+    }
+
+    @Test
+    public void testPatchCrLf() throws IOException {
+        // 文档中的换行统一为\n，文件中是\r\n时行号也要一致
+        String text = "a=1\r\nb=two \\\r\n  lines\r\nc=3\r\n";
+        Document document = document(text.replace("\r\n", "\n"));
+        SafeProperties properties = load(text);
+        properties.getContext().setSourceStamp(document.getModificationStamp());
+
+        properties.remove("a");
+        properties.put("c", "x");
+        properties.put("d", "4");
+        patch(properties, document);
+        assertEquals("b=two \\\n  lines\nc=x\nd=4\n", document.getText());
+    }
+
+    @Test
+    public void testPatchChangedDocument() throws IOException {
+        Document document = document("a=1\n");
+        SafeProperties properties = load(document);
+        document.insertString(0, "b=2\n");
+        properties.put("c", "3");
+        assertFalse(properties.getContext().patch(document));
+        assertEquals("b=2\na=1\n", document.getText());
+    }
+
+    @Test
+    public void testCopy() throws IOException {
+        Document document = document("# comment\na=1\nb=2\n");
+        SafeProperties properties = load(document);
+        properties.put("c", "3");
+        SafeProperties copy = properties.copy();
+
+        copy.remove("a");
+        copy.put("d", "4");
+        assertEquals("1", properties.getProperty("a"));
+        assertNull(properties.getProperty("d"));
+        assertEquals("# comment\na=1\nb=2\nc=3\n", store(properties));
+
+        // 副本带有复制前的修改，增量写入后不影响原对象的行号
+        patch(copy, document);
+        assertEquals("# comment\nb=2\nc=3\nd=4\n", document.getText());
+        assertEquals(1, copy.getSourceLine("b"));
+        assertEquals(2, properties.getSourceLine("b"));
+        assertFalse(properties.getContext().isPatchable(document));
+    }
+
+    @Test
+    public void testCopyValueIndex() throws IOException {
+        SafeProperties properties = load("a=用户不存在\nb=订单已取消\n");
+        PropertiesValueIndex index = properties.getValueIndex();
+        SafeProperties copy = properties.copy();
+
+        // 副本带有索引的副本，修改互不影响
+        PropertiesValueIndex copyIndex = copy.getValueIndex();
+        assertTrue(index != copyIndex);
+        copy.remove("a");
+        copy.put("c", "商品不存在");
+        assertNull(copyIndex.getKey("用户不存在"));
+        assertEquals("c", copyIndex.getKey("商品 不存在"));
+        assertEquals("a", index.getKey("用户不存在"));
+        assertNull(index.getKey("商品不存在"));
+        assertEquals(Collections.singletonList("a"), index.findSimilarKeys("用户不存在了", 5));
+        assertEquals(Collections.singletonList("c"), copyIndex.findSimilarKeys("商品不存在了", 5));
+    }
+
+    @Test
+    public void testScan() throws IOException {
+        String text = "# comment\r\na = one \\\r\n  two\r\n\r\nb=\\u4E2D\r\na=3\r\nc";
+        Map<String, String> scanned = new LinkedHashMap<>();
+        SafeProperties.scan(new StringReader(text), (key, value) -> scanned.merge(key, value, (v1, v2) -> v1 + "," + v2));
+
+        Map<String, String> expected = new LinkedHashMap<>();
+        expected.put("a", "one two,3");
+        expected.put("b", "中");
+        expected.put("c", "");
+        assertEquals(expected, scanned);
+    }
+
+    @Test
+    public void testPreparePatch() throws IOException {
+        Document document = document("a=1\nb=2\nc=3\n");
+        SafeProperties properties = load(document);
+        properties.remove("b");
+        properties.getContext().preparePatch();
+        patch(properties, document);
+        assertEquals("a=1\nc=3\n", document.getText());
+
+        // 预先计算后又修改时重新计算
+        properties.remove("a");
+        properties.getContext().preparePatch();
+        properties.put("d", "4");
+        patch(properties, document);
+        assertEquals("c=3\nd=4\n", document.getText());
+    }
+}
@@ -0,0 +1,79 @@
+package com.ganguo.java.plugin.util;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TranslateCacheTests {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File file() {
+        return new File(folder.getRoot(), "ganguo/translate.cache");
+    }
+
+    @Test
+    public void testRoundTrip() {
+        TranslateCache cache = new TranslateCache(file());
+        assertNull(cache.get("zh", "en", "状态"));
+        cache.put("zh", "en", "状态", "status");
+        cache.put("zh", "en", "启用", "enable");
+        cache.put("en", "zh", "status", "状态");
+        // 后面的记录覆盖前面的
+        cache.put("zh", "en", "状态", "state");
+        cache.close();
+
+        TranslateCache reloaded = new TranslateCache(file());
+        assertEquals("state", reloaded.get("zh", "en", "状态"));
+        assertEquals("enable", reloaded.get("zh", "en", "启用"));
+        assertEquals("状态", reloaded.get("en", "zh", "status"));
+        assertNull(reloaded.get("en", "zh", "状态"));
+    }
+
+    @Test
+    public void testTruncatedRecord() throws IOException {
+        TranslateCache cache = new TranslateCache(file());
+        cache.put("zh", "en", "状态", "status");
+        cache.put("zh", "en", "启用", "enable");
+        cache.close();
+
+        // 模拟写入最后一条记录时中断
+        try (RandomAccessFile raf = new RandomAccessFile(file(), "rw")) {
+            raf.setLength(raf.length() - 3);
+        }
+
+        TranslateCache reloaded = new TranslateCache(file());
+        assertEquals("status", reloaded.get("zh", "en", "状态"));
+        assertNull(reloaded.get("zh", "en", "启用"));
+
+        // 不完整的记录已被去掉，之后追加的记录能正常读取
+        reloaded.put("zh", "en", "启用", "enabled");
+        reloaded.close();
+        TranslateCache again = new TranslateCache(file());
+        assertEquals("status", again.get("zh", "en", "状态"));
+        assertEquals("enabled", again.get("zh", "en", "启用"));
+    }
+
+    @Test
+    public void testOtherVersion() throws IOException {
+        File file = file();
+        assertTrue(file.getParentFile().mkdirs());
+        Files.write(file.toPath(), new byte[]{0, 0, 0, 99, 1, 2});
+
+        TranslateCache cache = new TranslateCache(file);
+        assertNull(cache.get("zh", "en", "状态"));
+        cache.put("zh", "en", "状态", "status");
+        cache.close();
+        assertEquals("status", new TranslateCache(file).get("zh", "en", "状态"));
+    }
+}
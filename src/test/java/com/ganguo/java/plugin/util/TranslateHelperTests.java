@@ -1,13 +1,76 @@
 package com.ganguo.java.plugin.util;
 
+import com.ganguo.java.plugin.translate.Translator;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
 public class TranslateHelperTests {
 
+    /**
+     * 只翻译以prefix开头的短语
+     */
+    private static Translator prefixTranslator(String prefix) {
+        return (texts, from, to) -> {
+            List<String> results = new ArrayList<>();
+            for (String text : texts) {
+                results.add(text.startsWith(prefix) ? text.toUpperCase() : null);
+            }
+            return CompletableFuture.completedFuture(results);
+        };
+    }
+
+    private static Translator failedTranslator() {
+        return (texts, from, to) -> {
+            CompletableFuture<List<String>> future = new CompletableFuture<>();
+            future.completeExceptionally(new IllegalStateException("fail"));
+            return future;
+        };
+    }
+
     @Test
     public void test() throws Exception {
         String text = new TranslateHelper("20190927000337780", "pqqy1tyGffHGFmLVe2qE")
                 .zh2En("普通++礼品卡++课程");
         System.out.println(text);
     }
+
+    @Test
+    public void testTranslators() throws Exception {
+        TranslateHelper helper = new TranslateHelper(Arrays.asList(prefixTranslator("a"), prefixTranslator("b")));
+        assertEquals(Arrays.asList("AX", "BY", "cz"),
+                helper.translateAllAsync(Arrays.asList("ax", "by", "cz"), "zh", "en").get());
+    }
+
+    @Test
+    public void testFailedTranslator() throws Exception {
+        // 失败的翻译器的短语交给下一个
+        TranslateHelper helper = new TranslateHelper(Arrays.asList(failedTranslator(), prefixTranslator("a")));
+        assertEquals(Arrays.asList("AX", "by"),
+                helper.translateAllAsync(Arrays.asList("ax", "by"), "zh", "en").get());
+
+        helper = new TranslateHelper(Arrays.asList(prefixTranslator("a"), failedTranslator()));
+        assertEquals(Arrays.asList("AX", "by"),
+                helper.translateAllAsync(Arrays.asList("ax", "by"), "zh", "en").get());
+    }
+
+    @Test
+    public void testNothingTranslated() throws Exception {
+        TranslateHelper helper = new TranslateHelper(Arrays.asList(prefixTranslator("a"), failedTranslator()));
+        try {
+            helper.translateAllAsync(Collections.singletonList("by"), "zh", "en").get();
+            fail();
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+    }
 }